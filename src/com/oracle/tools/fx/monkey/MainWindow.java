@@ -38,6 +38,7 @@ import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.MenuBar;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.input.KeyCombination;
@@ -47,16 +48,33 @@ import javafx.scene.layout.Priority;
 import javafx.stage.Stage;
 import com.oracle.tools.fx.monkey.pages.DemoPage;
 import com.oracle.tools.fx.monkey.settings.FxSettings;
+import com.oracle.tools.fx.monkey.tools.AllocationProfilerPane;
 import com.oracle.tools.fx.monkey.tools.ClipboardViewer;
+import com.oracle.tools.fx.monkey.tools.ColumnResizeBenchmarkPane;
 import com.oracle.tools.fx.monkey.tools.CssPlaygroundPane;
 import com.oracle.tools.fx.monkey.tools.EmbeddedFxTextArea;
 import com.oracle.tools.fx.monkey.tools.EmbeddedJTextAreaWindow;
+import com.oracle.tools.fx.monkey.tools.HorizontalScrollBenchmarkPane;
+import com.oracle.tools.fx.monkey.tools.JfrRecorder;
 import com.oracle.tools.fx.monkey.tools.KeyboardEventViewer;
+import com.oracle.tools.fx.monkey.tools.MonkeyPane;
 import com.oracle.tools.fx.monkey.tools.Native2AsciiPane;
+import com.oracle.tools.fx.monkey.tools.NestedHeaderBenchmarkPane;
+import com.oracle.tools.fx.monkey.tools.PageLeakDetector;
+import com.oracle.tools.fx.monkey.tools.PageLeakPane;
+import com.oracle.tools.fx.monkey.tools.SceneGraphStatsPane;
+import com.oracle.tools.fx.monkey.tools.ScrollBenchmarkPane;
+import com.oracle.tools.fx.monkey.tools.SelectionBenchmarkPane;
+import com.oracle.tools.fx.monkey.tools.SessionRecorderPane;
+import com.oracle.tools.fx.monkey.tools.SkinStressPane;
+import com.oracle.tools.fx.monkey.tools.StallMonitorPane;
 import com.oracle.tools.fx.monkey.tools.SystemInfoViewer;
+import com.oracle.tools.fx.monkey.tools.VariableHeightBenchmarkPane;
 import com.oracle.tools.fx.monkey.util.FX;
 import com.oracle.tools.fx.monkey.util.HasSkinnable;
+import com.oracle.tools.fx.monkey.util.JfrEvents;
 import com.oracle.tools.fx.monkey.util.SingleInstance;
+import com.oracle.tools.fx.monkey.util.UserActivity;
 
 /**
  * Monkey Tester Main Window
@@ -138,6 +156,8 @@ public class MainWindow extends Stage {
         FX.menu(b, "_Skin");
         FX.item(b, "Set New Skin", this::newSkin);
         FX.item(b, "<null> Skin", this::nullSkin);
+        FX.separator(b);
+        FX.item(b, "Stress Test...", this::openSkinStressTest);
         // Menu
         FX.menu(b, "_Menu");
         ToggleGroup g = new ToggleGroup();
@@ -146,13 +166,32 @@ public class MainWindow extends Stage {
         FX.radio(b, "RadioMenuItem 3", KeyCombination.keyCombination("Shortcut+3"), g);
         // Tools
         FX.menu(b, "_Tools");
+        FX.item(b, "Allocation Profiler", this::openAllocationProfiler);
         FX.item(b, "Clipboard Viewer", this::openClipboardViewer);
+        FX.item(b, "Column Resize Benchmark", this::openColumnResizeBenchmark);
         FX.item(b, "CSS Playground", this::openCssPlayground);
         FX.item(b, "FX TextArea Embedded in JFXPanel", this::openJFXPanel);
+        FX.item(b, "FX Thread Stall Monitor", this::openStallMonitor);
+        FX.item(b, "Horizontal Scroll Benchmark", this::openHorizontalScrollBenchmark);
         FX.item(b, "JTextArea/JTextField Embedded in SwingNode", this::openJTextArea);
         FX.item(b, "Keyboard Event Viewer", this::openKeyboardViewer);
+        FX.item(b, "Monkey Event Generator", this::openMonkey);
         FX.item(b, "Native to ASCII", this::openNative2Ascii);
+        FX.item(b, "Nested Column Header Benchmark", this::openNestedHeaderBenchmark);
+        FX.item(b, "Page Memory Retention", this::openPageLeaks);
+        FX.item(b, "Scene Graph Statistics", this::openSceneGraphStats);
+        FX.item(b, "Scroll Benchmark", this::openScrollBenchmark);
+        FX.item(b, "Selection Model Benchmark", this::openSelectionBenchmark);
+        FX.item(b, "Session Recorder", this::openSessionRecorder);
         FX.item(b, "System Info", this::openSystemInfo);
+        FX.item(b, "Variable Height Benchmark", this::openVariableHeightBenchmark);
+        FX.separator(b);
+        MenuItem jfrStart = FX.item(b, "Start JFR Recording", JfrRecorder::start);
+        MenuItem jfrStop = FX.item(b, "Stop JFR Recording...", () -> JfrRecorder.stop(this));
+        FX.lastMenu(b).setOnShowing((ev) -> {
+            jfrStart.setDisable(JfrRecorder.isRecording());
+            jfrStop.setDisable(!JfrRecorder.isRecording());
+        });
         // Window
         FX.menu(b, "_Window");
         FX.item(b, orientation);
@@ -164,7 +203,10 @@ public class MainWindow extends Stage {
     private void updatePage(DemoPage p) {
         FxSettings.store(contentPane);
         currentPage = p;
-        contentPane.setCenter(p == null ? null : p.createPane());
+        UserActivity.setPage(p == null ? null : p.getTitle());
+        Node n = (p == null) ? null : p.createPane();
+        PageLeakDetector.track(p == null ? null : p.getTitle(), n);
+        contentPane.setCenter(n);
         updateTitle();
         FxSettings.restore(contentPane);
     }
@@ -228,6 +270,14 @@ public class MainWindow extends Stage {
         );
     }
 
+    private void openNestedHeaderBenchmark() {
+        SingleInstance.openSingleInstance(
+            "NestedHeaderBenchmark",
+            "Nested Column Header Benchmark",
+            () -> new NestedHeaderBenchmarkPane(contentPane::getCenter)
+        );
+    }
+
     private void openCssPlayground() {
         SingleInstance.openSingleInstance(
             "CSSPlayground",
@@ -236,6 +286,14 @@ public class MainWindow extends Stage {
         );
     }
 
+    private void openAllocationProfiler() {
+        SingleInstance.openSingleInstance(
+            "AllocationProfiler",
+            "FX Thread Allocation Profiler",
+            AllocationProfilerPane::new
+        );
+    }
+
     private void openClipboardViewer() {
         SingleInstance.openSingleInstance(
             "ClipboardViewer",
@@ -244,6 +302,22 @@ public class MainWindow extends Stage {
         );
     }
 
+    private void openColumnResizeBenchmark() {
+        SingleInstance.openSingleInstance(
+            "ColumnResizeBenchmark",
+            "Column Resize Policy Benchmark",
+            () -> new ColumnResizeBenchmarkPane(contentPane::getCenter)
+        );
+    }
+
+    private void openHorizontalScrollBenchmark() {
+        SingleInstance.openSingleInstance(
+            "HorizontalScrollBenchmark",
+            "Horizontal Scroll Benchmark",
+            () -> new HorizontalScrollBenchmarkPane(contentPane::getCenter)
+        );
+    }
+
     private void openKeyboardViewer() {
         SingleInstance.openSingleInstance(
             "KeyboardEventViewer",
@@ -252,6 +326,70 @@ public class MainWindow extends Stage {
         );
     }
 
+    private void openMonkey() {
+        SingleInstance.openSingleInstance(
+            "Monkey",
+            "Monkey Event Generator",
+            () -> new MonkeyPane(contentPane::getCenter)
+        );
+    }
+
+    private void openPageLeaks() {
+        SingleInstance.openSingleInstance(
+            "PageLeaks",
+            "Page Memory Retention",
+            PageLeakPane::new
+        );
+    }
+
+    private void openSceneGraphStats() {
+        SingleInstance.openSingleInstance(
+            "SceneGraphStats",
+            "Scene Graph Statistics",
+            () -> new SceneGraphStatsPane(contentPane::getCenter)
+        );
+    }
+
+    private void openScrollBenchmark() {
+        SingleInstance.openSingleInstance(
+            "ScrollBenchmark",
+            "VirtualFlow Scroll Benchmark",
+            () -> new ScrollBenchmarkPane(contentPane::getCenter)
+        );
+    }
+
+    private void openVariableHeightBenchmark() {
+        SingleInstance.openSingleInstance(
+            "VariableHeightBenchmark",
+            "Variable Height Benchmark",
+            () -> new VariableHeightBenchmarkPane(contentPane::getCenter)
+        );
+    }
+
+    private void openSelectionBenchmark() {
+        SingleInstance.openSingleInstance(
+            "SelectionBenchmark",
+            "Selection Model Benchmark",
+            SelectionBenchmarkPane::new
+        );
+    }
+
+    private void openSessionRecorder() {
+        SingleInstance.openSingleInstance(
+            "SessionRecorder",
+            "Session Recorder",
+            () -> new SessionRecorderPane(contentPane::getCenter)
+        );
+    }
+
+    private void openStallMonitor() {
+        SingleInstance.openSingleInstance(
+            "StallMonitor",
+            "FX Thread Stall Monitor",
+            StallMonitorPane::new
+        );
+    }
+
     private void openSystemInfo() {
         SingleInstance.openSingleInstance(
             "SystemInfo",
@@ -272,17 +410,35 @@ public class MainWindow extends Stage {
         EmbeddedFxTextArea.start();
     }
 
+    private void openSkinStressTest() {
+        SingleInstance.openSingleInstance(
+            "SkinStressTest",
+            "Skin Swap Stress Test",
+            () -> new SkinStressPane(contentPane::getCenter)
+        );
+    }
+
     private void nullSkin() {
         Node n = contentPane.getCenter();
         if (n instanceof HasSkinnable s) {
+            JfrEvents.SkinChange ev = new JfrEvents.SkinChange();
+            ev.begin();
             s.nullSkin();
+            ev.page = String.valueOf(currentPage);
+            ev.newSkin = false;
+            ev.commit();
         }
     }
 
     private void newSkin() {
         Node n = contentPane.getCenter();
         if (n instanceof HasSkinnable s) {
+            JfrEvents.SkinChange ev = new JfrEvents.SkinChange();
+            ev.begin();
             s.newSkin();
+            ev.page = String.valueOf(currentPage);
+            ev.newSkin = true;
+            ev.commit();
         }
     }
 }
@@ -27,6 +27,8 @@ package com.oracle.tools.fx.monkey;
 import javafx.application.Application;
 import javafx.stage.Stage;
 import com.oracle.tools.fx.monkey.settings.FxSettings;
+import com.oracle.tools.fx.monkey.tools.FxThreadWatchdog;
+import com.oracle.tools.fx.monkey.util.UserActivity;
 
 /**
  * Monkey Tester Application.
@@ -34,6 +36,7 @@ import com.oracle.tools.fx.monkey.settings.FxSettings;
  * Applications stores its user preferences (window location, etc.) in ~/.MonkeyTester directory.
  * To use a different directory, redefine the "user.home" system property, -Duser.home=<...>.
  * To disable saving, specify -Ddisable.settings=true vm agrument.
+ * To disable the FX application thread watchdog, specify -Ddisable.watchdog=true vm argument.
  */
 public class MonkeyTesterApp extends Application {
     public static void main(String[] args) {
@@ -53,6 +56,10 @@ public class MonkeyTesterApp extends Application {
 
     @Override
     public void start(Stage stage) throws Exception {
+        UserActivity.init();
+        if (!Boolean.getBoolean("disable.watchdog")) {
+            FxThreadWatchdog.start();
+        }
         new MainWindow().show();
     }
 }
@@ -28,6 +28,7 @@ import javafx.beans.property.Property;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.scene.control.CheckBox;
 import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.SessionRecorder;
 
 /**
  * Boolean Option Bound to a Property.
@@ -43,6 +44,9 @@ public class BooleanOption extends CheckBox {
 
         setText(text);
         selectedProperty().bindBidirectional(property);
+        selectedProperty().addListener((s, pr, on) -> {
+            SessionRecorder.option(this, on);
+        });
     }
 
     public BooleanOption(String name, String text, Runnable onChange) {
@@ -31,7 +31,10 @@ import javafx.beans.property.Property;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.control.ComboBox;
 import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.JfrEvents;
 import com.oracle.tools.fx.monkey.util.NamedValue;
+import com.oracle.tools.fx.monkey.util.SessionRecorder;
+import com.oracle.tools.fx.monkey.util.UserActivity;
 import com.oracle.tools.fx.monkey.util.Utils;
 
 /**
@@ -47,10 +50,17 @@ public class ObjectOption<T> extends ComboBox<NamedValue<T>> {
         // TODO add the current value to choices and select it
 
         getSelectionModel().selectedItemProperty().addListener((s, pr, c) -> {
+            UserActivity.action("option " + name + "=" + c);
+            SessionRecorder.option(this, getSelectionModel().getSelectedIndex());
+            JfrEvents.OptionChange ev = new JfrEvents.OptionChange();
+            ev.begin();
             T v = c.getValue();
             if (!Utils.eq(v, property.getValue())) {
                 property.set(v);
             }
+            ev.option = name;
+            ev.value = String.valueOf(c);
+            ev.commit();
         });
     }
 
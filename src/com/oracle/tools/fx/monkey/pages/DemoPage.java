@@ -26,6 +26,7 @@ package com.oracle.tools.fx.monkey.pages;
 
 import java.util.function.Supplier;
 import javafx.scene.layout.Pane;
+import com.oracle.tools.fx.monkey.util.JfrEvents;
 
 /**
  * Descriptor for an individual test (a "demo").
@@ -41,7 +42,12 @@ public class DemoPage {
     }
 
     public Pane createPane() {
-        return generator.get();
+        JfrEvents.PageCreate ev = new JfrEvents.PageCreate();
+        ev.begin();
+        Pane p = generator.get();
+        ev.page = title;
+        ev.commit();
+        return p;
     }
 
     @Override
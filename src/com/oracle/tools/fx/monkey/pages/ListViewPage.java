@@ -30,6 +30,7 @@ import java.util.Random;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableList;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
@@ -51,11 +52,14 @@ import com.oracle.tools.fx.monkey.options.EnumOption;
 import com.oracle.tools.fx.monkey.options.ObjectOption;
 import com.oracle.tools.fx.monkey.sheets.ControlPropertySheet;
 import com.oracle.tools.fx.monkey.sheets.Options;
+import com.oracle.tools.fx.monkey.util.CellStats;
 import com.oracle.tools.fx.monkey.util.FX;
 import com.oracle.tools.fx.monkey.util.HasSkinnable;
+import com.oracle.tools.fx.monkey.util.ImageCache;
 import com.oracle.tools.fx.monkey.util.ImageTools;
 import com.oracle.tools.fx.monkey.util.ObjectSelector;
 import com.oracle.tools.fx.monkey.util.OptionPane;
+import com.oracle.tools.fx.monkey.util.RunLengthSelectionModel;
 import com.oracle.tools.fx.monkey.util.SequenceNumber;
 import com.oracle.tools.fx.monkey.util.TestPaneBase;
 import com.oracle.tools.fx.monkey.util.Utils;
@@ -65,6 +69,9 @@ import com.oracle.tools.fx.monkey.util.Utils;
  */
 public class ListViewPage extends TestPaneBase implements HasSkinnable {
     private final ListView<Object> control;
+    private final SimpleObjectProperty<Callback> cellFactory = new SimpleObjectProperty<>();
+    private final BooleanOption instrumentCells;
+    private final CellStats cellStats = new CellStats();
 
     public ListViewPage() {
         super("ListViewPage");
@@ -92,9 +99,13 @@ public class ListViewPage extends TestPaneBase implements HasSkinnable {
             control.refresh();
         });
 
+        instrumentCells = new BooleanOption("instrumentCells", "instrument cells", this::updateCellFactory);
+
         OptionPane op = new OptionPane();
         op.section("ListView");
         op.option("Cell Factory:", createCellFactoryOptions());
+        op.option(instrumentCells);
+        op.option(cellStats.createPane());
         op.option(new BooleanOption("editable", "editable", control.editableProperty()));
         op.option("Fixed Cell Size:", Options.fixedSizeOption("fixedCellSize", control.fixedCellSizeProperty()));
         op.option("Focus Model:", createFocusModelOptions("focusModel", control.focusModelProperty()));
@@ -103,6 +114,7 @@ public class ListViewPage extends TestPaneBase implements HasSkinnable {
         op.option("Orientation:", new EnumOption<Orientation>("orientation", Orientation.class, control.orientationProperty()));
         op.option("Placeholder:", Options.placeholderNode("placeholder", control.placeholderProperty()));
         op.option("Selection Model:", createSelectionModelOptions("selectionModel"));
+        op.option("Image Cache:", ImageCache.createPane());
 
         op.separator();
         op.option(jumpButton);
@@ -150,7 +162,9 @@ public class ListViewPage extends TestPaneBase implements HasSkinnable {
 
     private Node createCellFactoryOptions() {
         var original = control.getCellFactory();
-        ObjectOption<Callback> op = new ObjectOption("cellFactory", control.cellFactoryProperty());
+        cellFactory.set(original);
+        cellFactory.addListener((s, p, c) -> updateCellFactory());
+        ObjectOption<Callback> op = new ObjectOption("cellFactory", cellFactory);
         op.addChoice("<default>", original);
         op.addChoiceSupplier("TextFieldListCell", () -> TextFieldListCell.forListView());
         op.addChoiceSupplier("Large Icon", () -> {
@@ -172,32 +186,48 @@ public class ListViewPage extends TestPaneBase implements HasSkinnable {
                 };
             };
         });
-        op.addChoiceSupplier("ListViewSkin", () -> {
-            return (r) -> new ListCell<Object>() {
-                @Override
-                public void updateItem(Object item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty) {
-                        setText(null);
-                        setGraphic(null);
-                    } else if (item instanceof Node) {
-                        setText(null);
-                        Node currentNode = getGraphic();
-                        Node newNode = (Node)item;
-                        if (currentNode == null || !currentNode.equals(newNode)) {
-                            setGraphic(newNode);
-                        }
-                    } else {
-                        setText(item == null ? "null" : item.toString());
-                        setGraphic(null);
-                    }
-                }
-            };
-        });
+        op.addChoiceSupplier("ListViewSkin", () -> createDefaultCellFactory(null));
         op.addChoice("<null>", null);
         return op;
     }
 
+    /** same as the ListViewSkin default cell, the updateItem() calls are timed when stats is not null */
+    private static Callback<ListView<Object>, ListCell<Object>> createDefaultCellFactory(CellStats stats) {
+        return (r) -> new ListCell<Object>() {
+            @Override
+            public void updateItem(Object item, boolean empty) {
+                long start = System.nanoTime();
+                super.updateItem(item, empty);
+                if (empty) {
+                    setText(null);
+                    setGraphic(null);
+                } else if (item instanceof Node) {
+                    setText(null);
+                    Node currentNode = getGraphic();
+                    Node newNode = (Node)item;
+                    if (currentNode == null || !currentNode.equals(newNode)) {
+                        setGraphic(newNode);
+                    }
+                } else {
+                    setText(item == null ? "null" : item.toString());
+                    setGraphic(null);
+                }
+                if (stats != null) {
+                    stats.addUpdate(empty, System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    private void updateCellFactory() {
+        Callback f = cellFactory.get();
+        if (instrumentCells.getValue()) {
+            control.setCellFactory(cellStats.wrap(f == null ? createDefaultCellFactory(cellStats) : f));
+        } else {
+            control.setCellFactory(f);
+        }
+    }
+
     private Node createFocusModelOptions(String name, ObjectProperty<FocusModel<Object>> p) {
         var original = control.getFocusModel();
         ObjectOption<FocusModel<Object>> s = new ObjectOption<>(name, p);
@@ -207,15 +237,26 @@ public class ListViewPage extends TestPaneBase implements HasSkinnable {
         return s;
     }
 
+    private static record SelectionChoice(boolean isNull, boolean isMultiple, boolean isRunLength) { }
+
     private Node createSelectionModelOptions(String name) {
         var original = control.getSelectionModel();
-        ObjectSelector<Boolean> s = new ObjectSelector<>(name, (v) -> {
-            control.setSelectionModel(v == null ? null : original);
-            original.setSelectionMode(Boolean.TRUE.equals(v) ? SelectionMode.MULTIPLE : SelectionMode.SINGLE);
+        var runLength = new RunLengthSelectionModel<>(control);
+        runLength.setSelectionMode(SelectionMode.MULTIPLE);
+        ObjectSelector<SelectionChoice> s = new ObjectSelector<>(name, (v) -> {
+            if (v.isNull()) {
+                control.setSelectionModel(null);
+            } else if (v.isRunLength()) {
+                control.setSelectionModel(runLength);
+            } else {
+                control.setSelectionModel(original);
+                original.setSelectionMode(v.isMultiple() ? SelectionMode.MULTIPLE : SelectionMode.SINGLE);
+            }
         });
-        s.addChoice("Single", Boolean.FALSE);
-        s.addChoice("Multiple", Boolean.TRUE);
-        s.addChoice("<null>", null);
+        s.addChoice("Single", new SelectionChoice(false, false, false));
+        s.addChoice("Multiple", new SelectionChoice(false, true, false));
+        s.addChoice("Multiple, Run-Length", new SelectionChoice(false, true, true));
+        s.addChoice("<null>", new SelectionChoice(true, false, false));
         s.selectFirst();
         return s;
     }
@@ -236,6 +277,63 @@ public class ListViewPage extends TestPaneBase implements HasSkinnable {
         return n + "." + SequenceNumber.next() + "." + sb;
     }
 
+    /** the distribution of the number of lines in the variable height items */
+    private enum Heights {
+        /** 1 to 16 lines, uniformly distributed */
+        UNIFORM,
+        /** mostly 1 line, with rare very tall items (Pareto distribution, up to 500 lines) */
+        HEAVY_TAILED,
+        /** 1 and 16 lines, alternating */
+        ALTERNATING;
+
+        public int lines(int ix) {
+            switch (this) {
+            case UNIFORM:
+                return 1 + (hash(ix) & 0x0f);
+            case HEAVY_TAILED:
+                double u = ((hash(ix) >>> 8) + 1) / (double)(1 << 24);
+                return (int)Math.min(500, Math.floor(Math.pow(u, -1.0 / 1.2)));
+            default:
+                return ((ix & 1) == 0) ? 1 : 16;
+            }
+        }
+    }
+
+    private static int hash(int ix) {
+        int h = ix * 0x9E3779B9;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Creates a variable height item, the number of lines depends on the index only
+     * so the generated data set is repeatable.
+     */
+    private static String newVariableItem(int ix, Heights heights) {
+        int lines = heights.lines(ix);
+        StringBuilder sb = new StringBuilder(lines * 4 + 8);
+        sb.append(ix);
+        for (int i = 1; i < lines; i++) {
+            sb.append('\n').append(i);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates an item for the horizontal orientation: the "index." prefix followed by 1 to 64 characters,
+     * mostly short.  The length depends on the index only, so the generated data set is repeatable.
+     */
+    private static String newVariableWidthItem(int ix) {
+        int h = hash(ix);
+        // the product of two uniform values skews the lengths towards the short ones
+        int len = 1 + ((h & 0x3f) * ((h >>> 6) & 0x3f)) / 63;
+        StringBuilder sb = new StringBuilder(len + 8);
+        sb.append(ix).append('.');
+        for (int i = 0; i < len; i++) {
+            sb.append("iWmo.l".charAt(((h >>> 12) + i) % 6));
+        }
+        return sb.toString();
+    }
+
     private Supplier<List<Object>> createItems(int count, Function<Integer, Object> gen) {
         return () -> {
             ArrayList<Object> rv = new ArrayList<>(count);
@@ -255,8 +353,17 @@ public class ListViewPage extends TestPaneBase implements HasSkinnable {
         s.addChoiceSupplier("10 Rows", createItems(10, this::newItem));
         s.addChoiceSupplier("200 Rows", createItems(200, this::newItem));
         s.addChoiceSupplier("10,000 Rows", createItems(10_000, this::newItem));
+        s.addChoiceSupplier("1,000,000 Rows", createItems(1_000_000, this::newItem));
         s.addChoiceSupplier("10 Variable Height Rows", createItems(10, this::newVariableItem));
         s.addChoiceSupplier("200 Variable HeightRows", createItems(200, this::newVariableItem));
+        s.addChoiceSupplier("10,000 Variable Height, Uniform", createItems(10_000, (ix) -> newVariableItem(ix, Heights.UNIFORM)));
+        s.addChoiceSupplier("1,000,000 Variable Height, Uniform", createItems(1_000_000, (ix) -> newVariableItem(ix, Heights.UNIFORM)));
+        s.addChoiceSupplier("10,000 Variable Height, Heavy-Tailed", createItems(10_000, (ix) -> newVariableItem(ix, Heights.HEAVY_TAILED)));
+        s.addChoiceSupplier("1,000,000 Variable Height, Heavy-Tailed", createItems(1_000_000, (ix) -> newVariableItem(ix, Heights.HEAVY_TAILED)));
+        s.addChoiceSupplier("10,000 Variable Height, Alternating", createItems(10_000, (ix) -> newVariableItem(ix, Heights.ALTERNATING)));
+        s.addChoiceSupplier("1,000,000 Variable Height, Alternating", createItems(1_000_000, (ix) -> newVariableItem(ix, Heights.ALTERNATING)));
+        s.addChoiceSupplier("10,000 Variable Width", createItems(10_000, ListViewPage::newVariableWidthItem));
+        s.addChoiceSupplier("1,000,000 Variable Width", createItems(1_000_000, ListViewPage::newVariableWidthItem));
         s.addChoice("<empty>", List.of());
         s.selectFirst();
         return s;
@@ -25,30 +25,76 @@
 
 package com.oracle.tools.fx.monkey.pages;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.property.ObjectProperty;
 import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.Pagination;
 import javafx.scene.control.skin.PaginationSkin;
 import javafx.scene.image.ImageView;
 import javafx.util.Callback;
+import javafx.util.Duration;
 import com.oracle.tools.fx.monkey.options.IntOption;
 import com.oracle.tools.fx.monkey.options.ObjectOption;
 import com.oracle.tools.fx.monkey.sheets.ControlPropertySheet;
+import com.oracle.tools.fx.monkey.util.FX;
 import com.oracle.tools.fx.monkey.util.HasSkinnable;
+import com.oracle.tools.fx.monkey.util.ImageCache;
 import com.oracle.tools.fx.monkey.util.ImageTools;
 import com.oracle.tools.fx.monkey.util.OptionPane;
+import com.oracle.tools.fx.monkey.util.PrefetchingPageFactory;
 import com.oracle.tools.fx.monkey.util.TestPaneBase;
 
 /**
  * Pagination Control Page.
  */
 public class PaginationPage extends TestPaneBase implements HasSkinnable {
+    private static final int NOISE_SIZE = 1_500;
     private final Pagination control;
+    private final ObjectOption<Callback<Integer, Node>> pageFactory;
+    /** page flip latencies, by the page factory name */
+    private final TreeMap<String, ArrayList<Long>> flips = new TreeMap<>();
+    private final Runnable pulseListener = this::handlePulse;
+    private Scene flipScene;
+    private long flipTime;
 
     public PaginationPage() {
         super("PaginationPage");
 
         control = new Pagination();
+        control.currentPageIndexProperty().addListener((s, p, c) -> {
+            if ((flipScene == null) && (control.getScene() != null)) {
+                flipTime = System.nanoTime();
+                flipScene = control.getScene();
+                flipScene.addPostLayoutPulseListener(pulseListener);
+            }
+        });
+
+        pageFactory = createPageFactoryOptions("pageFactory", control.pageFactoryProperty());
+
+        Label stats = new Label();
+        Timeline t = new Timeline(new KeyFrame(Duration.millis(500), (ev) -> {
+            stats.setText(getStats());
+        }));
+        t.setCycleCount(Timeline.INDEFINITE);
+        stats.sceneProperty().addListener((s, p, c) -> {
+            if (c == null) {
+                t.stop();
+            } else {
+                t.play();
+            }
+        });
+
+        Button clearButton = FX.button("Clear", () -> {
+            flips.clear();
+            stats.setText(getStats());
+        });
 
         OptionPane op = new OptionPane();
         op.section("Pagination");
@@ -56,7 +102,10 @@ public class PaginationPage extends TestPaneBase implements HasSkinnable {
         op.option("Max Page Indicator Count:", new IntOption("maxPageIndicatorCount", 0, Integer.MAX_VALUE, control.maxPageIndicatorCountProperty()));
         // TODO INDETERMINATE
         op.option("Page Count:", new IntOption("pageCount", 1, Integer.MAX_VALUE, control.pageCountProperty()));
-        op.option("Page Factory:", createPageFactoryOptions("pageFactory", control.pageFactoryProperty()));
+        op.option("Page Factory:", pageFactory);
+        op.option("Page Flip Latency:", stats);
+        op.option(clearButton);
+        op.option("Image Cache:", ImageCache.createPane());
 
         ControlPropertySheet.appendTo(op, control);
 
@@ -71,13 +120,57 @@ public class PaginationPage extends TestPaneBase implements HasSkinnable {
         };
     }
 
-    private Node createPageFactoryOptions(String name, ObjectProperty<Callback<Integer, Node>> p) {
+    /** generates an expensive page, in any thread */
+    private static Node createNoisePage(int ix) {
+        ImageView v = new ImageView(ImageTools.createImage(ImageTools.Pattern.NOISE, ix, NOISE_SIZE, NOISE_SIZE));
+        v.setFitWidth(256);
+        v.setPreserveRatio(true);
+        return v;
+    }
+
+    private ObjectOption<Callback<Integer, Node>> createPageFactoryOptions(String name, ObjectProperty<Callback<Integer, Node>> p) {
         ObjectOption<Callback<Integer, Node>> op = new ObjectOption<>(name, p);
         op.addChoice("Images", createImagesFactory());
+        op.addChoice("Noise Images", (ix) -> createNoisePage(ix));
+        op.addChoiceSupplier("Noise Images, Prefetch 2", () -> {
+            return new PrefetchingPageFactory(PaginationPage::createNoisePage, control::getPageCount, 2);
+        });
+        op.addChoiceSupplier("Noise Images, Prefetch 5", () -> {
+            return new PrefetchingPageFactory(PaginationPage::createNoisePage, control::getPageCount, 5);
+        });
         op.addChoice("<null>", null);
         return op;
     }
 
+    private void handlePulse() {
+        long dt = System.nanoTime() - flipTime;
+        flipScene.removePostLayoutPulseListener(pulseListener);
+        flipScene = null;
+
+        String name = String.valueOf(pageFactory.getSelectionModel().getSelectedItem());
+        flips.computeIfAbsent(name, (k) -> new ArrayList<>()).add(dt);
+    }
+
+    private String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ArrayList<Long>> en: flips.entrySet()) {
+            long[] ts = en.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            int n = ts.length;
+            sb.append(String.format(
+                "%s:\n  %d flips, p50=%.1f max=%.1f ms\n",
+                en.getKey(),
+                n,
+                ts[n / 2] / 1e6,
+                ts[n - 1] / 1e6
+            ));
+        }
+
+        if (control.getPageFactory() instanceof PrefetchingPageFactory f) {
+            sb.append(f.getStats());
+        }
+        return sb.toString();
+    }
+
     @Override
     public void nullSkin() {
         control.setSkin(null);
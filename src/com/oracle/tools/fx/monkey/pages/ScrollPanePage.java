@@ -25,13 +25,18 @@
 package com.oracle.tools.fx.monkey.pages;
 
 import java.util.function.Supplier;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.scene.Node;
+import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.ScrollPane.ScrollBarPolicy;
 import javafx.scene.control.skin.ScrollPaneSkin;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.util.Duration;
 import com.oracle.tools.fx.monkey.options.BooleanOption;
 import com.oracle.tools.fx.monkey.options.EnumOption;
 import com.oracle.tools.fx.monkey.options.ObjectOption;
@@ -40,6 +45,7 @@ import com.oracle.tools.fx.monkey.util.HasSkinnable;
 import com.oracle.tools.fx.monkey.util.ImageTools;
 import com.oracle.tools.fx.monkey.util.OptionPane;
 import com.oracle.tools.fx.monkey.util.TestPaneBase;
+import com.oracle.tools.fx.monkey.util.TiledContent;
 
 /**
  * ScrollPane Page.
@@ -55,6 +61,7 @@ public class ScrollPanePage extends TestPaneBase implements HasSkinnable {
         OptionPane op = new OptionPane();
         op.section("ScrollPane");
         op.option("Content:", createContentOptions("content", control.contentProperty()));
+        op.option(createTileStats());
         op.option(new BooleanOption("fitToHeight", "fit to height", control.fitToHeightProperty()));
         op.option(new BooleanOption("fitToWidth", "fit to width", control.fitToHeightProperty()));
         op.option("HBar Policy:", new EnumOption<ScrollBarPolicy>("hbarPolicy", true, ScrollBarPolicy.class, control.hbarPolicyProperty()));
@@ -110,6 +117,38 @@ public class ScrollPanePage extends TestPaneBase implements HasSkinnable {
         };
     }
 
+    /** generates the image in the background */
+    private Supplier<Node> mk(ImageTools.Pattern p, int w, int h) {
+        return () -> {
+            ImageView v = new ImageView();
+            ImageTools.createImageAsync(p, w * 31L + h, w, h).thenAccept((im) -> {
+                Platform.runLater(() -> v.setImage(im));
+            });
+            return v;
+        };
+    }
+
+    private Node createTileStats() {
+        Label label = new Label();
+        Timeline t = new Timeline(new KeyFrame(Duration.millis(500), (ev) -> {
+            if (control.getContent() instanceof TiledContent c) {
+                label.setText(c.getStats());
+            } else {
+                label.setText(null);
+            }
+        }));
+        t.setCycleCount(Timeline.INDEFINITE);
+
+        label.sceneProperty().addListener((s, p, c) -> {
+            if (c == null) {
+                t.stop();
+            } else {
+                t.play();
+            }
+        });
+        return label;
+    }
+
     private Node createContentOptions(String name, ObjectProperty<Node> p) {
         ObjectOption<Node> op = new ObjectOption<>(name, p);
         op.addChoiceSupplier("50 x 50", mk(50, 50));
@@ -117,6 +156,12 @@ public class ScrollPanePage extends TestPaneBase implements HasSkinnable {
         op.addChoiceSupplier("1,000 x 1,000", mk(1_000, 1_000));
         op.addChoiceSupplier("1,000 x 50", mk(1_000, 50));
         op.addChoiceSupplier("50 x 1,000", mk(50, 1_000));
+        op.addChoiceSupplier("Checkerboard 4,000 x 4,000", mk(ImageTools.Pattern.CHECKERBOARD, 4_000, 4_000));
+        op.addChoiceSupplier("Gradient 4,000 x 4,000", mk(ImageTools.Pattern.GRADIENT, 4_000, 4_000));
+        op.addChoiceSupplier("Noise 4,000 x 4,000", mk(ImageTools.Pattern.NOISE, 4_000, 4_000));
+        op.addChoiceSupplier("Tiled 10,000 x 10,000", () -> new TiledContent(control, ImageTools.Pattern.GRADIENT, 10_000, 10_000));
+        op.addChoiceSupplier("Tiled 100,000 x 1,000", () -> new TiledContent(control, ImageTools.Pattern.GRADIENT, 100_000, 1_000));
+        op.addChoiceSupplier("Tiled 100,000 x 100,000", () -> new TiledContent(control, ImageTools.Pattern.NOISE, 100_000, 100_000));
         op.addChoice("<null>", null);
         op.select(3);
         return op;
@@ -26,20 +26,26 @@ package com.oracle.tools.fx.monkey.pages;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import javafx.beans.Observable;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.ConstrainedColumnResizeBase;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
 import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableColumnBase;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableView.ResizeFeatures;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.control.skin.TableViewSkin;
 import javafx.scene.layout.Background;
@@ -50,51 +56,85 @@ import com.oracle.tools.fx.monkey.options.ObjectOption;
 import com.oracle.tools.fx.monkey.sheets.ControlPropertySheet;
 import com.oracle.tools.fx.monkey.sheets.Options;
 import com.oracle.tools.fx.monkey.sheets.TableColumnPropertySheet;
+import com.oracle.tools.fx.monkey.util.CellStats;
 import com.oracle.tools.fx.monkey.util.ColumnBuilder;
 import com.oracle.tools.fx.monkey.util.DataRow;
 import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.FilteredItems;
 import com.oracle.tools.fx.monkey.util.HasSkinnable;
 import com.oracle.tools.fx.monkey.util.ObjectSelector;
 import com.oracle.tools.fx.monkey.util.OptionPane;
+import com.oracle.tools.fx.monkey.util.ParallelFilter;
+import com.oracle.tools.fx.monkey.util.ParallelSortPolicy;
+import com.oracle.tools.fx.monkey.util.RunLengthTableSelectionModel;
 import com.oracle.tools.fx.monkey.util.TestPaneBase;
 import com.oracle.tools.fx.monkey.util.Utils;
+import com.oracle.tools.fx.monkey.util.ValueGenerator;
 
 /**
  * TableView Page.
  */
 public class TableViewPage extends TestPaneBase implements HasSkinnable {
     private final TableView<DataRow> control;
+    private final BooleanOption instrumentCells;
+    private final CellStats cellStats = new CellStats();
+    private final Label sortStats = new Label();
+    /** all the rows, the table shows the filtered rows while the filter is active */
+    private final ObservableList<DataRow> items;
+    private final FilteredItems<DataRow> filtered = new FilteredItems<>();
+    private final ParallelFilter<DataRow> filter;
+    private final TextField filterField = new TextField();
+    private final Label filterStats = new Label();
 
     public TableViewPage() {
         super("TableViewPage");
 
         control = new TableView<>();
+        items = control.getItems();
+
+        filter = new ParallelFilter<>(this::createSearchText, this::createGeneratedSearchText, filterStats::setText);
+        filterField.setPromptText("substring");
+        filterField.textProperty().addListener((s, p, c) -> updateFilter());
+        items.addListener((Observable x) -> {
+            if (control.getItems() == filtered) {
+                filter.setSource(items);
+                updateFilter();
+            }
+        });
+        control.getVisibleLeafColumns().addListener((Observable x) -> filter.invalidate());
 
         Button addDataItemButton = FX.button("Add Data Item", () -> {
-            control.getItems().add(new DataRow());
+            items.add(new DataRow());
         });
 
         Button clearDataItemsButton = FX.button("Clear Data Items", () -> {
-            control.getItems().clear();
+            items.clear();
         });
 
         Button refresh = FX.button("Refresh", () -> {
             control.refresh();
         });
 
+        instrumentCells = new BooleanOption("instrumentCells", "instrument cells", this::updateCellFactories);
+
         OptionPane op = new OptionPane();
         op.section("TableView");
         op.option("Columns:", createColumnsSelector("columns", control.getColumns()));
+        op.option(instrumentCells);
+        op.option(cellStats.createPane());
         op.option("Column Resize Policy:", createColumnResizePolicy("columnResizePolicy", control.columnResizePolicyProperty()));
         op.option(new BooleanOption("editable", "editable", control.editableProperty()));
+        op.option("Filter:", filterField);
+        op.option(filterStats);
         op.option("Fixed Cell Size:", Options.fixedSizeOption("fixedCellSize", control.fixedCellSizeProperty()));
         op.option("Focus Model:", createFocusModelOptions("focusModel", control.focusModelProperty()));
-        op.option("Items:", createItemsOptions("items", control.getItems()));
+        op.option("Items:", createItemsOptions("items", items));
         op.option(Utils.buttons(addDataItemButton, clearDataItemsButton));
         op.option("Placeholder:", Options.placeholderNode("placeholder", control.placeholderProperty()));
         op.option("Row Factory:", createRowFactoryOptions("rowFactory", control.rowFactoryProperty()));
         op.option("Selection Model:", createSelectionModelOptions("selectionModel"));
-        op.option("Sort Policy: TODO", null); // TODO
+        op.option("Sort Policy:", createSortPolicyOptions("sortPolicy", control.sortPolicyProperty()));
+        op.option(sortStats);
         op.option(new BooleanOption("tableMenuButtonVisible", "table menu button visible", control.tableMenuButtonVisibleProperty()));
         op.separator();
         op.option(refresh);
@@ -104,6 +144,81 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
         setOptions(op);
     }
 
+    /** extracts the text of the visible columns without a value generator, which needs the FX application thread */
+    private Function<DataRow, String> createSearchText() {
+        ArrayList<TableColumn<DataRow, ?>> cs = new ArrayList<>();
+        for (TableColumn<DataRow, ?> c: control.getVisibleLeafColumns()) {
+            if (ValueGenerator.get(c) == null) {
+                cs.add(c);
+            }
+        }
+        if (cs.isEmpty()) {
+            return null;
+        }
+
+        return (row) -> {
+            StringBuilder sb = new StringBuilder();
+            for (TableColumn<DataRow, ?> c: cs) {
+                Object v = c.getCellData(row);
+                if (v != null) {
+                    sb.append(v).append('\n');
+                }
+            }
+            return sb.toString();
+        };
+    }
+
+    /**
+     * Extracts the text of the visible columns with a value generator in any thread: the generated value
+     * depends on the row id only, so the cell values need not be created.
+     * The edited values of these columns are not searched.
+     */
+    private Function<DataRow, String> createGeneratedSearchText() {
+        ArrayList<ValueGenerator> gs = new ArrayList<>();
+        for (TableColumn<DataRow, ?> c: control.getVisibleLeafColumns()) {
+            ValueGenerator g = ValueGenerator.get(c);
+            if (g != null) {
+                gs.add(g);
+            }
+        }
+        if (gs.isEmpty()) {
+            return null;
+        }
+
+        return (row) -> {
+            StringBuilder sb = new StringBuilder();
+            for (ValueGenerator g: gs) {
+                String v = g.toString(g.getValue(row.getId()));
+                if (v != null) {
+                    sb.append(v).append('\n');
+                }
+            }
+            return sb.toString();
+        };
+    }
+
+    private void updateFilter() {
+        String query = filterField.getText();
+        if ((query == null) || query.isEmpty()) {
+            filter.cancel();
+            if (control.getItems() == filtered) {
+                control.setItems(items);
+                filtered.publish(List.of());
+                // the rows might have been sorted while filtered
+                control.sort();
+                filterStats.setText(null);
+            }
+            return;
+        }
+
+        if (control.getItems() != filtered) {
+            filter.setSource(items);
+            filtered.publish(items);
+            control.setItems(filtered);
+        }
+        filter.filter(query, filtered, control.getComparator(), filtered::publish);
+    }
+
     private ContextMenu createPopupMenu(TableColumn<?,?> tc) {
         ContextMenu m = new ContextMenu();
         FX.item(m, "Add Column Before", () -> addColumn(tc, false));
@@ -118,11 +233,11 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
 
     private TableColumn<DataRow, Object> newColumn() {
         TableColumn<DataRow, Object> tc = new TableColumn();
-        tc.setCellFactory(TextFieldTableCell.<DataRow, Object>forTableColumn(DataRow.converter()));
+        tc.setCellFactory(createCellFactory());
         tc.setCellValueFactory((cdf) -> {
             Object v = cdf.getValue();
             if (v instanceof DataRow r) {
-                return r.getValue(tc);
+                return r.getValue(tc, ValueGenerator.get(tc));
             }
             return new SimpleObjectProperty(v);
         });
@@ -130,6 +245,43 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
         return tc;
     }
 
+    private Callback<TableColumn<DataRow, Object>, TableCell<DataRow, Object>> createCellFactory() {
+        // the column type (value generator) determines the converter and the alignment
+        Callback<TableColumn<DataRow, Object>, TableCell<DataRow, Object>> f = (tc) -> {
+            ValueGenerator g = ValueGenerator.get(tc);
+            TableCell<DataRow, Object> c = new TextFieldTableCell<>((g == null) ? DataRow.converter() : g.converter()) {
+                @Override
+                public void updateItem(Object item, boolean empty) {
+                    long start = System.nanoTime();
+                    super.updateItem(item, empty);
+                    if (instrumentCells.getValue()) {
+                        cellStats.addUpdate(empty, System.nanoTime() - start);
+                    }
+                }
+            };
+            if ((g != null) && g.isNumeric()) {
+                c.setAlignment(Pos.CENTER_RIGHT);
+            }
+            return c;
+        };
+        // the option is checked on each call: some column sets are created before it is set
+        return cellStats.wrap(f, () -> instrumentCells.getValue());
+    }
+
+    private void updateCellFactories() {
+        updateCellFactories(control.getColumns());
+    }
+
+    private void updateCellFactories(List<? extends TableColumn<DataRow, ?>> columns) {
+        for (TableColumn<DataRow, ?> c: columns) {
+            if (c.getColumns().isEmpty()) {
+                ((TableColumn<DataRow, Object>)c).setCellFactory(createCellFactory());
+            } else {
+                updateCellFactories(c.getColumns());
+            }
+        }
+    }
+
     private void addColumn(TableColumn<?, ?> ref, boolean after) {
         int ix = control.getColumns().indexOf(ref);
         if (ix < 0) {
@@ -208,6 +360,23 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
             }
             return cs.asList();
         });
+        s.addChoiceSupplier("200 Equal", () -> {
+            var cs = columnBuilder();
+            for (int i = 1; i <= 200; i++) {
+                cs.col("C" + i);
+            }
+            return cs.asList();
+        });
+        s.addChoiceSupplier("2,000 Equal", () -> {
+            var cs = columnBuilder();
+            for (int i = 1; i <= 2_000; i++) {
+                cs.col("C" + i);
+            }
+            return cs.asList();
+        });
+        s.addChoiceSupplier("500 Mixed", () -> columnBuilder().mixed(500).asList());
+        s.addChoiceSupplier("1,000 Mixed", () -> columnBuilder().mixed(1_000).asList());
+        s.addChoiceSupplier("5,000 Mixed", () -> columnBuilder().mixed(5_000).asList());
         s.addChoice("Fixed in the Middle", columnBuilder().
             col("C1").
             col("C2").
@@ -250,6 +419,10 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
             combine(1, 2).
             asList()
         );
+        s.addChoiceSupplier("Nested 4x3", () -> columnBuilder().nested(4, 3).asList());
+        s.addChoiceSupplier("Nested 6x4", () -> columnBuilder().nested(6, 4).asList());
+        s.addChoiceSupplier("Typed Values", () -> columnBuilder().typed(7).asList());
+        s.addChoiceSupplier("100 Typed", () -> columnBuilder().typed(100).asList());
         s.addChoice("<empty>", FXCollections.observableArrayList());
         return s;
     }
@@ -274,20 +447,46 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
         return s;
     }
 
-    private static record SelectionChoice(boolean isNull, boolean isMultiple, boolean isCells) { }
+    private static record SelectionChoice(boolean isNull, boolean isMultiple, boolean isCells, boolean isRunLength) { }
 
     private Node createSelectionModelOptions(String name) {
         var original = control.getSelectionModel();
+        var runLength = new RunLengthTableSelectionModel<>(control);
+        runLength.setSelectionMode(SelectionMode.MULTIPLE);
         ObjectSelector<SelectionChoice> s = new ObjectSelector<>(name, (v) -> {
-            control.setSelectionModel(v.isNull() ? null : original);
-            original.setSelectionMode(v.isMultiple() ? SelectionMode.MULTIPLE : SelectionMode.SINGLE);
-            original.setCellSelectionEnabled(v.isCells());
+            if (v.isNull()) {
+                control.setSelectionModel(null);
+            } else if (v.isRunLength()) {
+                control.setSelectionModel(runLength);
+            } else {
+                control.setSelectionModel(original);
+                original.setSelectionMode(v.isMultiple() ? SelectionMode.MULTIPLE : SelectionMode.SINGLE);
+                original.setCellSelectionEnabled(v.isCells());
+            }
         });
-        s.addChoice("Single Row", new SelectionChoice(false, false, false));
-        s.addChoice("Multiple Rows", new SelectionChoice(false, true, false));
-        s.addChoice("Single Cell", new SelectionChoice(false, false, true));
-        s.addChoice("Multiple Cells", new SelectionChoice(false, true, true));
-        s.addChoice("<null>", new SelectionChoice(true, false, false));
+        s.addChoice("Single Row", new SelectionChoice(false, false, false, false));
+        s.addChoice("Multiple Rows", new SelectionChoice(false, true, false, false));
+        s.addChoice("Single Cell", new SelectionChoice(false, false, true, false));
+        s.addChoice("Multiple Cells", new SelectionChoice(false, true, true, false));
+        s.addChoice("Multiple Rows, Run-Length", new SelectionChoice(false, true, false, true));
+        s.addChoice("<null>", new SelectionChoice(true, false, false, false));
+        s.selectFirst();
+        return s;
+    }
+
+    private Node createSortPolicyOptions(String name, ObjectProperty<Callback<TableView<DataRow>, Boolean>> p) {
+        ObjectOption<Callback<TableView<DataRow>, Boolean>> s = new ObjectOption<>(name, p);
+        s.addChoice("<default>", (t) -> {
+            long start = System.nanoTime();
+            Boolean rv = TableView.DEFAULT_SORT_POLICY.call(t);
+            long elapsed = System.nanoTime() - start;
+            int size = (t.getItems() == null) ? 0 : t.getItems().size();
+            sortStats.setText(String.format("%,d rows: %.1f ms", size, elapsed / 1_000_000.0));
+            return rv;
+        });
+        s.addChoice("Parallel", new ParallelSortPolicy<>(false, sortStats::setText));
+        s.addChoice("Parallel, Cancellable", new ParallelSortPolicy<>(true, sortStats::setText));
+        s.addChoice("<null>", null);
         s.selectFirst();
         return s;
     }
@@ -295,7 +494,7 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
     private List<DataRow> createRows(int count) {
         ArrayList<DataRow> rv = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
-            rv.add(new DataRow());
+            rv.add(new DataRow(i));
         }
         return rv;
     }
@@ -309,6 +508,8 @@ public class TableViewPage extends TestPaneBase implements HasSkinnable {
         s.addChoiceSupplier("100 Rows", () -> createRows(100));
         s.addChoiceSupplier("1,000 Rows", () -> createRows(1000));
         s.addChoiceSupplier("10,000 Rows", () -> createRows(10_000));
+        s.addChoiceSupplier("100,000 Rows", () -> createRows(100_000));
+        s.addChoiceSupplier("1,000,000 Rows", () -> createRows(1_000_000));
         s.addChoiceSupplier("<empty>", () -> createRows(0));
         return s;
     }
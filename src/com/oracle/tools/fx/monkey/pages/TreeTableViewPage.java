@@ -24,20 +24,33 @@
  */
 package com.oracle.tools.fx.monkey.pages;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.event.EventHandler;
+import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ConstrainedColumnResizeBase;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Label;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeSortMode;
+import javafx.scene.control.TreeTableCell;
 import javafx.scene.control.TreeTableColumn;
 import javafx.scene.control.TreeTableRow;
 import javafx.scene.control.TreeTableView;
@@ -53,27 +66,58 @@ import com.oracle.tools.fx.monkey.options.ObjectOption;
 import com.oracle.tools.fx.monkey.sheets.ControlPropertySheet;
 import com.oracle.tools.fx.monkey.sheets.Options;
 import com.oracle.tools.fx.monkey.sheets.TableColumnPropertySheet;
+import com.oracle.tools.fx.monkey.util.CellStats;
 import com.oracle.tools.fx.monkey.util.ColumnBuilder;
 import com.oracle.tools.fx.monkey.util.DataRow;
 import com.oracle.tools.fx.monkey.util.FX;
 import com.oracle.tools.fx.monkey.util.HasSkinnable;
+import com.oracle.tools.fx.monkey.util.LazyTreeItem;
 import com.oracle.tools.fx.monkey.util.ObjectSelector;
 import com.oracle.tools.fx.monkey.util.OptionPane;
+import com.oracle.tools.fx.monkey.util.ParallelFilter;
+import com.oracle.tools.fx.monkey.util.RunLengthTreeTableSelectionModel;
 import com.oracle.tools.fx.monkey.util.SequenceNumber;
 import com.oracle.tools.fx.monkey.util.TestPaneBase;
 import com.oracle.tools.fx.monkey.util.Utils;
+import com.oracle.tools.fx.monkey.util.ValueGenerator;
 
 /**
  * TreeTableView Page.
  */
 public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
     private final TreeTableView<DataRow> control;
+    private final BooleanOption instrumentCells;
+    private final CellStats cellStats = new CellStats();
+    private final ParallelFilter<TreeItem<DataRow>> filter;
+    private final TextField filterField = new TextField();
+    private final Label filterStats = new Label();
+    /** the root being filtered, or null */
+    private TreeItem<DataRow> filteredRoot;
+    /** all the children of the root being filtered */
+    private List<TreeItem<DataRow>> unfiltered;
+    private final TextArea treeResults = new TextArea();
+    private int treeEvents;
+    private long cellUpdates;
+    private static final Object CELL_LISTENER = new Object();
 
     public TreeTableViewPage() {
         super("TreeTableViewPage");
 
         control = new TreeTableView<>();
 
+        filter = new ParallelFilter<>(this::createSearchText, this::createGeneratedSearchText, filterStats::setText);
+        filterField.setPromptText("substring");
+        filterField.textProperty().addListener((s, p, c) -> updateFilter());
+        control.rootProperty().addListener((s, p, c) -> {
+            if ((p != null) && (p == filteredRoot)) {
+                p.getChildren().setAll(unfiltered);
+                filteredRoot = null;
+                unfiltered = null;
+            }
+            updateFilter();
+        });
+        control.getVisibleLeafColumns().addListener((Observable x) -> filter.invalidate());
+
         Button addDataItemButton = FX.button("Add Data Item", this::addDataItem);
         addDataItemButton.setDisable(true); // FIX
 
@@ -86,11 +130,39 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
             control.refresh();
         });
 
+        instrumentCells = new BooleanOption("instrumentCells", "instrument cells", this::updateCellFactories);
+
+        treeResults.setEditable(false);
+        treeResults.setWrapText(false);
+        treeResults.setPrefRowCount(8);
+        treeResults.setStyle("-fx-font-family:monospace;");
+
+        Button expandAllButton = FX.button("Expand All", () -> {
+            measure("Expand All", () -> setExpandedAll(control.getRoot(), true));
+        });
+
+        Button collapseAllButton = FX.button("Collapse All", () -> {
+            measure("Collapse All", () -> setExpandedAll(control.getRoot(), false));
+        });
+
+        Button expandLargeButton = FX.button("Expand 100k Node", this::expandLargeNode);
+
+        Button sortAllButton = FX.button("Sort All Descendants", () -> sort(TreeSortMode.ALL_DESCENDANTS));
+
+        Button sortFirstButton = FX.button("Sort First Level", () -> sort(TreeSortMode.ONLY_FIRST_LEVEL));
+
+        Button clearResultsButton = FX.button("Clear Results", this::clearTreeResults);
+        clearTreeResults();
+
         OptionPane op = new OptionPane();
         op.section("TreeTableView");
         op.option("Columns:", createColumnsSelector("columns", control.getColumns()));
+        op.option(instrumentCells);
+        op.option(cellStats.createPane());
         op.option("Column Resize Policy:", createColumnResizePolicy("columnResizePolicy", control.columnResizePolicyProperty()));
         op.option(new BooleanOption("editable", "editable", control.editableProperty()));
+        op.option("Filter:", filterField);
+        op.option(filterStats);
         op.option("Fixed Cell Size:", Options.fixedSizeOption("fixedCellSize", control.fixedCellSizeProperty()));
         op.option("Focus Model:", createFocusModelOptions("focusModel", control.focusModelProperty()));
         op.option("Placeholder:", Options.placeholderNode("placeholder", control.placeholderProperty()));
@@ -104,12 +176,104 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
         op.option(new BooleanOption("tableMenuButtonVisible", "table menu button visible", control.tableMenuButtonVisibleProperty()));
         op.separator();
         op.option(refresh);
+        op.section("Tree Operations");
+        op.option(Utils.buttons(expandAllButton, collapseAllButton));
+        op.option(Utils.buttons(expandLargeButton));
+        op.option(Utils.buttons(sortAllButton, sortFirstButton));
+        op.option(treeResults);
+        op.option(clearResultsButton);
         ControlPropertySheet.appendTo(op, control);
 
         setContent(control);
         setOptions(op);
     }
 
+    /** extracts the text of the visible columns without a value generator, which needs the FX application thread */
+    private Function<TreeItem<DataRow>, String> createSearchText() {
+        ArrayList<TreeTableColumn<DataRow, ?>> cs = new ArrayList<>();
+        for (TreeTableColumn<DataRow, ?> c: control.getVisibleLeafColumns()) {
+            if (ValueGenerator.get(c) == null) {
+                cs.add(c);
+            }
+        }
+        if (cs.isEmpty()) {
+            return null;
+        }
+
+        return (item) -> {
+            StringBuilder sb = new StringBuilder();
+            for (TreeTableColumn<DataRow, ?> c: cs) {
+                Object v = c.getCellData(item);
+                if (v != null) {
+                    sb.append(v).append('\n');
+                }
+            }
+            return sb.toString();
+        };
+    }
+
+    /**
+     * Extracts the text of the visible columns with a value generator in any thread: the generated value
+     * depends on the row id only, so the cell values need not be created.
+     * The edited values of these columns are not searched.
+     */
+    private Function<TreeItem<DataRow>, String> createGeneratedSearchText() {
+        ArrayList<ValueGenerator> gs = new ArrayList<>();
+        for (TreeTableColumn<DataRow, ?> c: control.getVisibleLeafColumns()) {
+            ValueGenerator g = ValueGenerator.get(c);
+            if (g != null) {
+                gs.add(g);
+            }
+        }
+        if (gs.isEmpty()) {
+            return null;
+        }
+
+        return (item) -> {
+            StringBuilder sb = new StringBuilder();
+            for (ValueGenerator g: gs) {
+                String v = g.toString(g.getValue(item.getValue().getId()));
+                if (v != null) {
+                    sb.append(v).append('\n');
+                }
+            }
+            return sb.toString();
+        };
+    }
+
+    /** filters the children of the root, publishing the result with a single setAll() */
+    private void updateFilter() {
+        String query = filterField.getText();
+        if ((query == null) || query.isEmpty()) {
+            filter.cancel();
+            if (filteredRoot != null) {
+                filteredRoot.getChildren().setAll(unfiltered);
+                filteredRoot = null;
+                unfiltered = null;
+                // the rows might have been sorted while filtered
+                control.sort();
+                filterStats.setText(null);
+            }
+            return;
+        }
+
+        TreeItem<DataRow> root = control.getRoot();
+        if (root == null) {
+            return;
+        }
+
+        if (root != filteredRoot) {
+            filteredRoot = root;
+            unfiltered = new ArrayList<>(root.getChildren());
+            filter.setSource(unfiltered);
+        }
+        filter.filter(query, root.getChildren(), control.getComparator(), (rv) -> {
+            if (root == filteredRoot) {
+                root.getChildren().setAll(rv);
+            }
+        });
+    }
+
     private ContextMenu createPopupMenu(TreeTableColumn<?,?> tc) {
         ContextMenu m = new ContextMenu();
         FX.item(m, "Add Column Before", () -> addColumn(tc, false));
@@ -124,11 +288,11 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
 
     private TreeTableColumn<DataRow, Object> newColumn() {
         TreeTableColumn<DataRow, Object> tc = new TreeTableColumn();
-        tc.setCellFactory(TextFieldTreeTableCell.<DataRow, Object>forTreeTableColumn(DataRow.converter()));
+        tc.setCellFactory(createCellFactory());
         tc.setCellValueFactory((cdf) -> {
             Object v = cdf.getValue().getValue();
             if (v instanceof DataRow r) {
-                return r.getValue(tc);
+                return r.getValue(tc, ValueGenerator.get(tc));
             }
             return new SimpleObjectProperty(v);
         });
@@ -136,6 +300,43 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
         return tc;
     }
 
+    private Callback<TreeTableColumn<DataRow, Object>, TreeTableCell<DataRow, Object>> createCellFactory() {
+        // the column type (value generator) determines the converter and the alignment
+        Callback<TreeTableColumn<DataRow, Object>, TreeTableCell<DataRow, Object>> f = (tc) -> {
+            ValueGenerator g = ValueGenerator.get(tc);
+            TreeTableCell<DataRow, Object> c = new TextFieldTreeTableCell<>((g == null) ? DataRow.converter() : g.converter()) {
+                @Override
+                public void updateItem(Object item, boolean empty) {
+                    long start = System.nanoTime();
+                    super.updateItem(item, empty);
+                    if (instrumentCells.getValue()) {
+                        cellStats.addUpdate(empty, System.nanoTime() - start);
+                    }
+                }
+            };
+            if ((g != null) && g.isNumeric()) {
+                c.setAlignment(Pos.CENTER_RIGHT);
+            }
+            return c;
+        };
+        // the option is checked on each call: some column sets are created before it is set
+        return cellStats.wrap(f, () -> instrumentCells.getValue());
+    }
+
+    private void updateCellFactories() {
+        updateCellFactories(control.getColumns());
+    }
+
+    private void updateCellFactories(List<? extends TreeTableColumn<DataRow, ?>> columns) {
+        for (TreeTableColumn<DataRow, ?> c: columns) {
+            if (c.getColumns().isEmpty()) {
+                ((TreeTableColumn<DataRow, Object>)c).setCellFactory(createCellFactory());
+            } else {
+                updateCellFactories(c.getColumns());
+            }
+        }
+    }
+
     private void addColumn(TreeTableColumn<?, ?> ref, boolean after) {
         int ix = control.getColumns().indexOf(ref);
         if (ix < 0) {
@@ -222,6 +423,23 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
             }
             return cs.asList();
         });
+        s.addChoiceSupplier("200 Equal", () -> {
+            var cs = columnBuilder();
+            for (int i = 1; i <= 200; i++) {
+                cs.col("C" + i);
+            }
+            return cs.asList();
+        });
+        s.addChoiceSupplier("2,000 Equal", () -> {
+            var cs = columnBuilder();
+            for (int i = 1; i <= 2_000; i++) {
+                cs.col("C" + i);
+            }
+            return cs.asList();
+        });
+        s.addChoiceSupplier("500 Mixed", () -> columnBuilder().mixed(500).asList());
+        s.addChoiceSupplier("1,000 Mixed", () -> columnBuilder().mixed(1_000).asList());
+        s.addChoiceSupplier("5,000 Mixed", () -> columnBuilder().mixed(5_000).asList());
         s.addChoice("Fixed in the Middle", columnBuilder().
             col("C1").
             col("C2").
@@ -264,6 +482,10 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
             combine(1, 2).
             asList()
         );
+        s.addChoiceSupplier("Nested 4x3", () -> columnBuilder().nested(4, 3).asList());
+        s.addChoiceSupplier("Nested 6x4", () -> columnBuilder().nested(6, 4).asList());
+        s.addChoiceSupplier("Typed Values", () -> columnBuilder().typed(7).asList());
+        s.addChoiceSupplier("100 Typed", () -> columnBuilder().typed(100).asList());
         s.addChoice("<empty>", FXCollections.observableArrayList());
         return s;
     }
@@ -307,20 +529,29 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
         return s;
     }
 
-    private static record SelectionChoice(boolean isNull, boolean isMultiple, boolean isCells) { }
+    private static record SelectionChoice(boolean isNull, boolean isMultiple, boolean isCells, boolean isRunLength) { }
 
     private Node createSelectionModelOptions(String name) {
         var original = control.getSelectionModel();
+        var runLength = new RunLengthTreeTableSelectionModel<>(control);
+        runLength.setSelectionMode(SelectionMode.MULTIPLE);
         ObjectSelector<SelectionChoice> s = new ObjectSelector<>(name, (v) -> {
-            control.setSelectionModel(v.isNull() ? null : original);
-            original.setSelectionMode(v.isMultiple() ? SelectionMode.MULTIPLE : SelectionMode.SINGLE);
-            original.setCellSelectionEnabled(v.isCells());
+            if (v.isNull()) {
+                control.setSelectionModel(null);
+            } else if (v.isRunLength()) {
+                control.setSelectionModel(runLength);
+            } else {
+                control.setSelectionModel(original);
+                original.setSelectionMode(v.isMultiple() ? SelectionMode.MULTIPLE : SelectionMode.SINGLE);
+                original.setCellSelectionEnabled(v.isCells());
+            }
         });
-        s.addChoice("Single Row", new SelectionChoice(false, false, false));
-        s.addChoice("Multiple Rows", new SelectionChoice(false, true, false));
-        s.addChoice("Single Cell", new SelectionChoice(false, false, true));
-        s.addChoice("Multiple Cells", new SelectionChoice(false, true, true));
-        s.addChoice("<null>", new SelectionChoice(true, false, false));
+        s.addChoice("Single Row", new SelectionChoice(false, false, false, false));
+        s.addChoice("Multiple Rows", new SelectionChoice(false, true, false, false));
+        s.addChoice("Single Cell", new SelectionChoice(false, false, true, false));
+        s.addChoice("Multiple Cells", new SelectionChoice(false, true, true, false));
+        s.addChoice("Multiple Rows, Run-Length", new SelectionChoice(false, true, false, true));
+        s.addChoice("<null>", new SelectionChoice(true, false, false, false));
         s.selectFirst();
         return s;
     }
@@ -329,7 +560,7 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
         return () -> {
             TreeItem<DataRow> root = new TreeItem<>();
             for (int i = 0; i < count; i++) {
-                root.getChildren().add(new TreeItem<>(new DataRow()));
+                root.getChildren().add(new TreeItem<>(new DataRow(i)));
             }
             return root;
         };
@@ -340,10 +571,146 @@ public class TreeTableViewPage extends TestPaneBase implements HasSkinnable {
         s.addChoiceSupplier("1 Row", mk(1));
         s.addChoiceSupplier("10 Rows", mk(10));
         s.addChoiceSupplier("1_000 Rows", mk(1_000));
+        s.addChoiceSupplier("100_000 Rows", mk(100_000));
+        s.addChoiceSupplier("1_000_000 Rows", mk(1_000_000));
+        s.addChoiceSupplier("Lazy Tree", this::createLazyTree);
         s.addChoice("<null>", null);
         return s;
     }
 
+    /** a lazy tree with a node having 100,000 children and four 5-level subtrees with 8 children per node */
+    private TreeItem<DataRow> createLazyTree() {
+        TreeItem<DataRow> root = new TreeItem<>(new DataRow());
+        root.getChildren().add(new LazyTreeItem<>(DataRow::new, 1, 100_000));
+        for (int i = 0; i < 4; i++) {
+            root.getChildren().add(new LazyTreeItem<>(DataRow::new, 5, 8));
+        }
+        root.setExpanded(true);
+        return root;
+    }
+
+    private static void setExpandedAll(TreeItem<?> item, boolean on) {
+        if ((item == null) || item.isLeaf()) {
+            return;
+        }
+        item.setExpanded(on);
+        // collapsing should not create the children of the lazy items
+        if (on || !(item instanceof LazyTreeItem<?> lazy) || lazy.isLoaded()) {
+            for (TreeItem<?> ch: item.getChildren()) {
+                setExpandedAll(ch, on);
+            }
+        }
+    }
+
+    private void expandLargeNode() {
+        TreeItem<DataRow> root = control.getRoot();
+        if (root == null) {
+            return;
+        }
+
+        for (TreeItem<DataRow> ch: root.getChildren()) {
+            if ((ch instanceof LazyTreeItem<DataRow> lazy) && (lazy.getBreadth() >= 100_000)) {
+                if (ch.isExpanded()) {
+                    ch.setExpanded(false);
+                    Platform.runLater(() -> measure("Expand 100k Node", () -> ch.setExpanded(true)));
+                } else {
+                    measure("Expand 100k Node", () -> ch.setExpanded(true));
+                }
+                return;
+            }
+        }
+        appendTreeResult("Expand 100k Node: no such node, select the Lazy Tree root");
+    }
+
+    private void sort(TreeSortMode mode) {
+        String name = (mode == TreeSortMode.ALL_DESCENDANTS) ? "Sort All Descendants" : "Sort First Level";
+        control.setSortMode(mode);
+        measure(name, () -> {
+            if (control.getSortOrder().isEmpty()) {
+                if (!control.getVisibleLeafColumns().isEmpty()) {
+                    control.getSortOrder().add(control.getVisibleLeafColumns().get(0));
+                }
+            } else {
+                // toggling the sort type of the primary column triggers the sort
+                TreeTableColumn<DataRow, ?> c = control.getSortOrder().get(0);
+                boolean asc = (c.getSortType() == TreeTableColumn.SortType.ASCENDING);
+                c.setSortType(asc ? TreeTableColumn.SortType.DESCENDING : TreeTableColumn.SortType.ASCENDING);
+            }
+        });
+    }
+
+    /**
+     * Performs the operation and reports the time it took, the time to the end of the layout pass,
+     * the number of TreeModificationEvents, and the number of cells updated (or created).
+     */
+    private void measure(String name, Runnable operation) {
+        TreeItem<DataRow> root = control.getRoot();
+        Scene scene = control.getScene();
+        if ((root == null) || (scene == null)) {
+            return;
+        }
+
+        EventHandler<TreeItem.TreeModificationEvent<DataRow>> h = (ev) -> treeEvents++;
+        root.addEventHandler(TreeItem.treeNotificationEvent(), h);
+        watchCells(control);
+        treeEvents = 0;
+        cellUpdates = 0;
+
+        long start = System.nanoTime();
+        operation.run();
+        long elapsed = System.nanoTime() - start;
+        int events = treeEvents;
+
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                long frame = System.nanoTime() - start;
+                root.removeEventHandler(TreeItem.treeNotificationEvent(), h);
+                long updates = cellUpdates + watchCells(control);
+                appendTreeResult(String.format(
+                    "%-20s %9.1f %9.1f %8d %8d %9d",
+                    name,
+                    elapsed / 1e6,
+                    frame / 1e6,
+                    events,
+                    updates,
+                    control.getExpandedItemCount()
+                ));
+            }
+        });
+        Platform.requestNextPulse();
+    }
+
+    /** adds the index listener to the cells seen for the first time, returns the number of such cells */
+    private int watchCells(Node n) {
+        if (n instanceof IndexedCell<?> c) {
+            if (c.getProperties().put(CELL_LISTENER, Boolean.TRUE) == null) {
+                c.indexProperty().addListener((s, p, v) -> cellUpdates++);
+                return 1;
+            }
+        }
+
+        int count = 0;
+        if (n instanceof Parent p) {
+            for (Node ch: p.getChildrenUnmodifiable()) {
+                count += watchCells(ch);
+            }
+        }
+        return count;
+    }
+
+    private void appendTreeResult(String text) {
+        treeResults.appendText(text + "\n");
+    }
+
+    private void clearTreeResults() {
+        treeResults.setText(String.format(
+            "%-20s %9s %9s %8s %8s %9s\n",
+            "operation", "op ms", "frame ms", "events", "cells", "expanded"
+        ));
+    }
+
     private void addDataItem() {
         // TODO
     }
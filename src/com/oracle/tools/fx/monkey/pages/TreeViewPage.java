@@ -24,24 +24,33 @@
  */
 package com.oracle.tools.fx.monkey.pages;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.function.Supplier;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.event.EventHandler;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.CheckBoxTreeItem;
 import javafx.scene.control.FocusModel;
 import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TreeCell;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import javafx.scene.control.cell.CheckBoxTreeCell;
 import javafx.scene.control.cell.TextFieldTreeCell;
 import javafx.scene.control.skin.TreeViewSkin;
+import javafx.scene.layout.HBox;
 import javafx.util.Callback;
 import com.oracle.tools.fx.monkey.options.BooleanOption;
 import com.oracle.tools.fx.monkey.options.ObjectOption;
 import com.oracle.tools.fx.monkey.sheets.ControlPropertySheet;
 import com.oracle.tools.fx.monkey.sheets.Options;
+import com.oracle.tools.fx.monkey.util.BatchedCheckBoxTreeItem;
+import com.oracle.tools.fx.monkey.util.CellStats;
 import com.oracle.tools.fx.monkey.util.FX;
 import com.oracle.tools.fx.monkey.util.HasSkinnable;
 import com.oracle.tools.fx.monkey.util.ObjectSelector;
@@ -54,7 +63,12 @@ import com.oracle.tools.fx.monkey.util.Utils;
  */
 public class TreeViewPage extends TestPaneBase implements HasSkinnable {
     private final TreeView<Object> control;
+    private final SimpleObjectProperty<Callback> cellFactory = new SimpleObjectProperty<>();
+    private final BooleanOption instrumentCells;
+    private final CellStats cellStats = new CellStats();
+    private final TextArea propagationResults = new TextArea();
     private int seq;
+    private int checkEvents;
 
     public TreeViewPage() {
         super("TreeViewPage");
@@ -80,9 +94,37 @@ public class TreeViewPage extends TestPaneBase implements HasSkinnable {
 
         Button removeButton = FX.button("Remove", this::removeChild);
 
+        instrumentCells = new BooleanOption("instrumentCells", "instrument cells", this::updateCellFactory);
+
+        propagationResults.setEditable(false);
+        propagationResults.setWrapText(false);
+        propagationResults.setPrefRowCount(8);
+        propagationResults.setStyle("-fx-font-family:monospace;");
+
+        Button toggleRootSelectedButton = FX.button("Toggle Root Selected", () -> {
+            toggle("Root Selected", control.getRoot(), false);
+        });
+
+        Button toggleRootIndeterminateButton = FX.button("Toggle Root Indeterminate", () -> {
+            toggle("Root Indeterminate", control.getRoot(), true);
+        });
+
+        Button toggleBranchSelectedButton = FX.button("Toggle Branch Selected", () -> {
+            toggle("Branch Selected", firstChild(control.getRoot()), false);
+        });
+
+        Button toggleLeafSelectedButton = FX.button("Toggle Leaf Selected", () -> {
+            toggle("Leaf Selected", firstLeaf(control.getRoot()), false);
+        });
+
+        Button clearResultsButton = FX.button("Clear Results", this::clearPropagationResults);
+        clearPropagationResults();
+
         OptionPane op = new OptionPane();
         op.section("TreeView");
         op.option("Cell Factory:", createCellFactoryOptions());
+        op.option(instrumentCells);
+        op.option(cellStats.createPane());
         op.option(new BooleanOption("editable", "editable", control.editableProperty()));
         op.option("Fixed Cell Size:", Options.fixedSizeOption("fixedCellSize", control.fixedCellSizeProperty()));
         op.option("Focus Model:", createFocusModelOptions("focusModel", control.focusModelProperty()));
@@ -93,6 +135,11 @@ public class TreeViewPage extends TestPaneBase implements HasSkinnable {
         op.separator();
         op.option(indeterminate);
         op.option(selected);
+        op.section("Selection Propagation");
+        op.option(Utils.buttons(toggleRootSelectedButton, toggleRootIndeterminateButton));
+        op.option(Utils.buttons(toggleBranchSelectedButton, toggleLeafSelectedButton));
+        op.option(propagationResults);
+        op.option(clearResultsButton);
         ControlPropertySheet.appendTo(op, control);
 
         setContent(control);
@@ -129,6 +176,43 @@ public class TreeViewPage extends TestPaneBase implements HasSkinnable {
         return s;
     }
 
+    /** similar to the TreeViewSkin default cell, the updateItem() calls are timed when stats is not null */
+    private static Callback<TreeView<Object>, TreeCell<Object>> createDefaultCellFactory(CellStats stats) {
+        return (r) -> new TreeCell<Object>() {
+            @Override
+            public void updateItem(Object item, boolean empty) {
+                long start = System.nanoTime();
+                super.updateItem(item, empty);
+                if (empty || (item == null)) {
+                    setText(null);
+                    setGraphic(null);
+                } else {
+                    TreeItem<Object> ti = getTreeItem();
+                    Node graphic = (ti == null) ? null : ti.getGraphic();
+                    if (item instanceof Node n) {
+                        setText(null);
+                        setGraphic((graphic == null) ? n : new HBox(3, graphic, n));
+                    } else {
+                        setText(item.toString());
+                        setGraphic(graphic);
+                    }
+                }
+                if (stats != null) {
+                    stats.addUpdate(empty, System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    private void updateCellFactory() {
+        Callback f = cellFactory.get();
+        if (instrumentCells.getValue()) {
+            control.setCellFactory(cellStats.wrap(f == null ? createDefaultCellFactory(cellStats) : f));
+        } else {
+            control.setCellFactory(f);
+        }
+    }
+
     private Supplier<TreeItem<Object>> mk(int count) {
         return () -> {
             TreeItem<Object> root = new TreeItem<>("ROOT");
@@ -139,18 +223,135 @@ public class TreeViewPage extends TestPaneBase implements HasSkinnable {
         };
     }
 
+    /**
+     * Creates a CheckBoxTreeItem hierarchy with the specified number of children at each level.
+     * The batched variant uses BatchedCheckBoxTreeItem for all the items.
+     */
+    private Supplier<TreeItem<Object>> mkCheckBoxTree(boolean batched, int... breadths) {
+        return () -> {
+            CheckBoxTreeItem<Object> root = mkCheckBoxItem(batched, "ROOT");
+            root.setExpanded(true);
+            addCheckBoxChildren(root, batched, breadths, 0);
+            return root;
+        };
+    }
+
+    private void addCheckBoxChildren(TreeItem<Object> parent, boolean batched, int[] breadths, int level) {
+        if (level < breadths.length) {
+            ArrayList<TreeItem<Object>> cs = new ArrayList<>(breadths[level]);
+            for (int i = 0; i < breadths[level]; i++) {
+                CheckBoxTreeItem<Object> item = mkCheckBoxItem(batched, "Item_" + (seq++));
+                addCheckBoxChildren(item, batched, breadths, level + 1);
+                cs.add(item);
+            }
+            parent.getChildren().setAll(cs);
+        }
+    }
+
+    private static CheckBoxTreeItem<Object> mkCheckBoxItem(boolean batched, Object value) {
+        return batched ? new BatchedCheckBoxTreeItem<>(value) : new CheckBoxTreeItem<>(value);
+    }
+
+    private static TreeItem<Object> firstChild(TreeItem<Object> item) {
+        if ((item == null) || item.getChildren().isEmpty()) {
+            return null;
+        }
+        return item.getChildren().get(0);
+    }
+
+    private static TreeItem<Object> firstLeaf(TreeItem<Object> item) {
+        while ((item != null) && !item.getChildren().isEmpty()) {
+            item = item.getChildren().get(0);
+        }
+        return item;
+    }
+
+    /**
+     * Toggles the selected or indeterminate state of the specified item, measuring the time it takes
+     * to propagate the change and the number of checkBoxSelectionChangedEvents received by the root.
+     */
+    private void toggle(String name, TreeItem<Object> item, boolean indeterminate) {
+        TreeItem<Object> root = control.getRoot();
+        if ((root == null) || !(item instanceof CheckBoxTreeItem<Object> cb)) {
+            appendPropagationResult(name + ": not a CheckBoxTreeItem");
+            return;
+        }
+
+        EventHandler<CheckBoxTreeItem.TreeModificationEvent<Object>> h = (ev) -> checkEvents++;
+        root.addEventHandler(CheckBoxTreeItem.checkBoxSelectionChangedEvent(), h);
+        checkEvents = 0;
+
+        long start = System.nanoTime();
+        if (indeterminate) {
+            cb.setIndeterminate(!cb.isIndeterminate());
+        } else {
+            cb.setSelected(!cb.isSelected());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        root.removeEventHandler(CheckBoxTreeItem.checkBoxSelectionChangedEvent(), h);
+
+        int[] counts = new int[2];
+        countStates(root, counts);
+        appendPropagationResult(String.format(
+            "%-20s %9.1f %9d %9d %9d",
+            name,
+            elapsed / 1e6,
+            checkEvents,
+            counts[0],
+            counts[1]
+        ));
+    }
+
+    /** counts the selected [0] and indeterminate [1] items */
+    private static void countStates(TreeItem<?> root, int[] counts) {
+        ArrayDeque<TreeItem<?>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            TreeItem<?> it = pending.pop();
+            if (it instanceof CheckBoxTreeItem<?> cb) {
+                if (cb.isSelected()) {
+                    counts[0]++;
+                }
+                if (cb.isIndeterminate()) {
+                    counts[1]++;
+                }
+            }
+            for (TreeItem<?> ch: it.getChildren()) {
+                pending.push(ch);
+            }
+        }
+    }
+
+    private void appendPropagationResult(String text) {
+        propagationResults.appendText(text + "\n");
+    }
+
+    private void clearPropagationResults() {
+        propagationResults.setText(String.format(
+            "%-20s %9s %9s %9s %9s\n",
+            "operation", "ms", "events", "selected", "indeterm"
+        ));
+    }
+
     private Node createRootOptions(String name, ObjectProperty<TreeItem<Object>> p) {
         ObjectOption<TreeItem<Object>> s = new ObjectOption(name, p);
         s.addChoiceSupplier("1 Row", mk(1));
         s.addChoiceSupplier("10 Rows", mk(10));
         s.addChoiceSupplier("1,000 Rows", mk(1_000));
+        s.addChoiceSupplier("CheckBox 100k Wide", mkCheckBoxTree(false, 100, 1_000));
+        s.addChoiceSupplier("CheckBox 100k Wide, Batched", mkCheckBoxTree(true, 100, 1_000));
+        s.addChoiceSupplier("CheckBox 300k Deep", mkCheckBoxTree(false, 8, 8, 8, 8, 8, 8));
+        s.addChoiceSupplier("CheckBox 300k Deep, Batched", mkCheckBoxTree(true, 8, 8, 8, 8, 8, 8));
         s.addChoice("<null>", null);
         return s;
     }
 
     private Node createCellFactoryOptions() {
         var original = control.getCellFactory();
-        ObjectOption<Callback> s = new ObjectOption("cellFactory", control.cellFactoryProperty());
+        cellFactory.set(original);
+        cellFactory.addListener((src, p, c) -> updateCellFactory());
+        ObjectOption<Callback> s = new ObjectOption("cellFactory", cellFactory);
         s.addChoice("<default>", original);
         s.addChoiceSupplier("CheckBoxTreeCell", () -> CheckBoxTreeCell.<Object>forTreeView());
         s.addChoiceSupplier("TextFieldTreeCell", () -> TextFieldTreeCell.forTreeView());
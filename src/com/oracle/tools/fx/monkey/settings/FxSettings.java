@@ -37,6 +37,7 @@ import javafx.stage.PopupWindow;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 import javafx.util.Duration;
+import com.oracle.tools.fx.monkey.util.JfrEvents;
 
 /**
  * This facility coordinates saving UI settings to and from persistent media.
@@ -212,12 +213,15 @@ public class FxSettings {
     }
 
     private static void save() {
+        JfrEvents.SettingsSave ev = new JfrEvents.SettingsSave();
+        ev.begin();
         try {
             save = false;
             provider.save();
         } catch (IOException e) {
             e.printStackTrace();
         }
+        ev.commit();
     }
 
     public static void restore(Node n) {
@@ -138,7 +138,11 @@ public class FxSettingsSchema {
         return false;
     }
 
-    private static String computeName(Node n) {
+    /**
+     * Computes the name used to identify the node in the settings, or null
+     * if the node (or any of its parents) cannot be named.
+     */
+    public static String computeName(Node n) {
         WindowMonitor m = WindowMonitor.getFor(n);
         if (m == null) {
             return null;
@@ -153,6 +157,64 @@ public class FxSettingsSchema {
         return id + sb;
     }
 
+    /**
+     * Finds the first node in the showing windows whose name (as computed by {@link #computeName(Node)})
+     * matches the specified name.
+     * @param name the name
+     * @return the node, or null
+     */
+    public static Node findByName(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        for (Window w: Window.getWindows()) {
+            WindowMonitor m = WindowMonitor.getFor(w);
+            if (m == null) {
+                continue;
+            }
+
+            Scene sc = w.getScene();
+            if ((sc == null) || !name.startsWith(m.getID() + ".")) {
+                continue;
+            }
+
+            Node n = findByName(sc.getRoot(), m.getID(), name);
+            if (n != null) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    private static Node findByName(Node n, String prefix, String name) {
+        if ((n instanceof MenuBar) || (n instanceof Shape) || (n instanceof ImageView)) {
+            return null;
+        }
+
+        String nm = getNodeName(n);
+        if (nm == null) {
+            return null;
+        }
+
+        String path = prefix + "." + nm;
+        if (path.equals(name)) {
+            return n;
+        } else if (!name.startsWith(path + ".")) {
+            return null;
+        }
+
+        if (n instanceof Parent p) {
+            for (Node ch: p.getChildrenUnmodifiable()) {
+                Node rv = findByName(ch, path, name);
+                if (rv != null) {
+                    return rv;
+                }
+            }
+        }
+        return null;
+    }
+
     // returns true if Node should be ignored
     private static boolean collectNames(StringBuilder sb, Node n) {
         if (n instanceof MenuBar) {
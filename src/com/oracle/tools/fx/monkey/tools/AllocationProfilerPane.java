@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.function.Consumer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.ToolBar;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Measures the memory allocated in the FX application thread per pulse and per user action
+ * (option change, key press, mouse press, scroll).
+ * The allocation caused by an action is measured from the action until the end of the next pulse.
+ *
+ * The profiler is active only while its window is showing.
+ */
+public class AllocationProfilerPane extends BorderPane {
+    private static final int HISTORY = 300;
+    private static final com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    private final long[] samples = new long[HISTORY];
+    private int sampleCount;
+    private int sampleIndex;
+    private long lastPulse = -1;
+    private String action;
+    private long actionStart;
+    private long markStart = -1;
+    private int markSeq;
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private final ObservableList<Entry> leaderboard = FXCollections.observableArrayList();
+    private final Runnable pulseListener = this::handlePulse;
+    private final Consumer<String> actionListener = this::handleAction;
+    private final Timeline refreshTimer;
+    private final Chart chart;
+    private final Label status;
+    private final Button markButton;
+    private Scene scene;
+
+    public AllocationProfilerPane() {
+        FX.name(this, "AllocationProfilerPane");
+
+        if (mx.isThreadAllocatedMemorySupported()) {
+            mx.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        chart = new Chart();
+
+        status = new Label();
+
+        TableView<Entry> table = new TableView<>(leaderboard);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
+        {
+            TableColumn<Entry, String> c = new TableColumn<>();
+            c.setText("Action");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().name));
+            c.setPrefWidth(1000);
+            table.getColumns().add(c);
+        }
+        {
+            TableColumn<Entry, Number> c = new TableColumn<>();
+            c.setText("Count");
+            c.setCellValueFactory((d) -> d.getValue().count);
+            c.setPrefWidth(60);
+            table.getColumns().add(c);
+        }
+        {
+            TableColumn<Entry, Number> c = new TableColumn<>();
+            c.setText("Total KB");
+            c.setCellValueFactory((d) -> d.getValue().total);
+            c.setPrefWidth(90);
+            table.getColumns().add(c);
+        }
+        {
+            TableColumn<Entry, Number> c = new TableColumn<>();
+            c.setText("Average KB");
+            c.setCellValueFactory((d) -> d.getValue().average);
+            c.setPrefWidth(90);
+            table.getColumns().add(c);
+        }
+        {
+            TableColumn<Entry, Number> c = new TableColumn<>();
+            c.setText("Max KB");
+            c.setCellValueFactory((d) -> d.getValue().max);
+            c.setPrefWidth(90);
+            table.getColumns().add(c);
+        }
+
+        markButton = FX.button("Start Mark", "Brackets an interaction by hand", this::toggleMark);
+        Button clearButton = FX.button("Clear", this::clear);
+
+        ToolBar tp = new ToolBar(markButton, clearButton, status);
+
+        SplitPane split = new SplitPane(chart, table);
+        FX.name(split, "split");
+        split.setOrientation(Orientation.VERTICAL);
+        split.setDividerPositions(0.3);
+
+        setTop(tp);
+        setCenter(split);
+
+        refreshTimer = new Timeline(new KeyFrame(Duration.millis(500), (ev) -> refresh()));
+        refreshTimer.setCycleCount(Timeline.INDEFINITE);
+
+        sceneProperty().
+            flatMap(Scene::windowProperty).
+            flatMap(Window::showingProperty).
+            orElse(Boolean.FALSE).
+            addListener((s, p, on) -> setActive(on));
+    }
+
+    private static long allocated() {
+        return mx.getCurrentThreadAllocatedBytes();
+    }
+
+    private void setActive(boolean on) {
+        if (on) {
+            scene = getScene();
+            scene.addPostLayoutPulseListener(pulseListener);
+            UserActivity.addListener(actionListener);
+            lastPulse = -1;
+            refreshTimer.play();
+        } else {
+            if (scene != null) {
+                scene.removePostLayoutPulseListener(pulseListener);
+                scene = null;
+            }
+            UserActivity.removeListener(actionListener);
+            refreshTimer.stop();
+        }
+    }
+
+    private void handlePulse() {
+        long now = allocated();
+        if (lastPulse >= 0) {
+            samples[sampleIndex] = now - lastPulse;
+            sampleIndex = (sampleIndex + 1) % HISTORY;
+            if (sampleCount < HISTORY) {
+                sampleCount++;
+            }
+        }
+        lastPulse = now;
+
+        if (action != null) {
+            record(action, now - actionStart);
+            action = null;
+        }
+    }
+
+    private void handleAction(String text) {
+        long now = allocated();
+        if (action != null) {
+            // no pulse between two actions
+            record(action, now - actionStart);
+        }
+        action = text;
+        actionStart = now;
+    }
+
+    private void toggleMark() {
+        long now = allocated();
+        if (markStart < 0) {
+            markStart = now;
+            markButton.setText("Stop Mark");
+        } else {
+            record("mark #" + (++markSeq), now - markStart);
+            markStart = -1;
+            markButton.setText("Start Mark");
+        }
+    }
+
+    private void record(String name, long bytes) {
+        Entry en = entries.get(name);
+        if (en == null) {
+            en = new Entry(name);
+            entries.put(name, en);
+            leaderboard.add(en);
+        }
+        en.add(bytes);
+    }
+
+    private void clear() {
+        entries.clear();
+        leaderboard.clear();
+        sampleCount = 0;
+        sampleIndex = 0;
+        markSeq = 0;
+        chart.draw();
+    }
+
+    private void refresh() {
+        leaderboard.sort((a, b) -> Long.compare(b.total.get(), a.total.get()));
+        chart.draw();
+
+        long sum = 0;
+        long max = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            long v = samples[i];
+            sum += v;
+            if (v > max) {
+                max = v;
+            }
+        }
+
+        long last = (sampleCount == 0) ? 0 : samples[(sampleIndex + HISTORY - 1) % HISTORY];
+        long avg = (sampleCount == 0) ? 0 : sum / sampleCount;
+        status.setText("Last pulse: " + kb(last) + " KB  Average: " + kb(avg) + " KB  Max: " + kb(max) + " KB");
+    }
+
+    private static long kb(long bytes) {
+        return bytes / 1024;
+    }
+
+    /** Leaderboard Entry */
+    private static class Entry {
+        public final String name;
+        public final SimpleLongProperty count = new SimpleLongProperty();
+        public final SimpleLongProperty total = new SimpleLongProperty();
+        public final SimpleLongProperty average = new SimpleLongProperty();
+        public final SimpleLongProperty max = new SimpleLongProperty();
+        private long bytes;
+
+        public Entry(String name) {
+            this.name = name;
+        }
+
+        public void add(long b) {
+            bytes += b;
+            count.set(count.get() + 1);
+            total.set(kb(bytes));
+            average.set(kb(bytes / count.get()));
+            if (kb(b) > max.get()) {
+                max.set(kb(b));
+            }
+        }
+    }
+
+    /** Rolling chart of bytes allocated per pulse, drawn on a canvas to minimize its own allocation */
+    private class Chart extends Pane {
+        private final Canvas canvas = new Canvas();
+
+        public Chart() {
+            getChildren().add(canvas);
+            widthProperty().addListener((x) -> draw());
+            heightProperty().addListener((x) -> draw());
+        }
+
+        public void draw() {
+            double w = getWidth();
+            double h = getHeight();
+            canvas.setWidth(w);
+            canvas.setHeight(h);
+
+            GraphicsContext g = canvas.getGraphicsContext2D();
+            g.setFill(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+
+            long max = 1;
+            for (int i = 0; i < sampleCount; i++) {
+                max = Math.max(max, samples[i]);
+            }
+
+            double bw = w / HISTORY;
+            g.setFill(Color.STEELBLUE);
+            for (int i = 0; i < sampleCount; i++) {
+                int ix = (sampleIndex - sampleCount + i + HISTORY) % HISTORY;
+                double bh = h * samples[ix] / max;
+                g.fillRect(i * bw, h - bh, Math.max(1, bw - 1), bh);
+            }
+
+            g.setFill(Color.BLACK);
+            g.fillText("max " + kb(max) + " KB/pulse", 4, 14);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TableView;
+import javafx.scene.control.ToolBar;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+import javafx.util.Callback;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Column Resize Policy Benchmark.
+ *
+ * Drives the TableView or TreeTableView in the current page through simulated header drags
+ * (a column in the middle is resized back and forth, as {@code TableColumnHeader} does on drag)
+ * and table width changes, for each of the page's column resize policies over a fixed set of
+ * the page's column choices.
+ * The resize policy is wrapped to measure the time spent in the policy, and to count the policy calls
+ * and the {@code setColumnWidth()} calls it makes (both reported per event); the frame time is measured from the resize event to
+ * the end of the layout pass.  One resize event is performed per pulse.
+ *
+ * Note that UNCONSTRAINED_RESIZE_POLICY resizes the column directly, without calling
+ * {@code setColumnWidth()}.
+ */
+public class ColumnResizeBenchmarkPane extends PulseBenchmarkPane {
+    private static final List<String> COLUMN_SETS = List.of("20 Equal", "Nested Columns", "200 Equal", "2,000 Equal");
+    private static final int DRAG_STEPS = 40;
+    private static final double DRAG_DELTA = 5;
+    private static final int WIDTH_STEPS = 40;
+    private static final double WIDTH_DELTA = 10;
+    private final Supplier<Node> pageSupplier;
+    // the state of the current run
+    private Control control;
+    private ComboBox<?> columnsSelector;
+    private ComboBox<?> policySelector;
+    private int originalColumns;
+    private Object originalPolicy;
+    private double originalMaxWidth;
+    private double baseWidth;
+    private final ArrayList<Result> done = new ArrayList<>();
+    // updated by the wrapped policy
+    private long policyTime;
+    private int policyCalls;
+    private int widthCalls;
+
+    private static class Result {
+        public final String columns;
+        public final String policy;
+        public final String scenario;
+        public long[] frames = new long[64];
+        public long[] policies = new long[64];
+        public int count;
+        public long calls;
+        public long setWidthCalls;
+
+        public Result(String columns, String policy, String scenario) {
+            this.columns = columns;
+            this.policy = policy;
+            this.scenario = scenario;
+        }
+
+        public void add(long frame, long policy, int calls, int setWidthCalls) {
+            if (count == frames.length) {
+                frames = Arrays.copyOf(frames, count * 2);
+                policies = Arrays.copyOf(policies, count * 2);
+            }
+            frames[count] = frame;
+            policies[count] = policy;
+            count++;
+            this.calls += calls;
+            this.setWidthCalls += setWidthCalls;
+        }
+    }
+
+    public ColumnResizeBenchmarkPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "ColumnResizeBenchmarkPane");
+        this.pageSupplier = pageSupplier;
+
+        Button startButton = FX.button("Start", this::start);
+        Button stopButton = FX.button("Stop", this::stop);
+
+        setTop(new ToolBar(startButton, stopButton, status));
+    }
+
+    private void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        Node page = pageSupplier.get();
+        Node content = (page == null) ? null : page.lookup(".test-content");
+        Control c = Tables.findTable(content);
+        if ((c == null) || (c.getScene() == null)) {
+            status.setText("No TableView or TreeTableView in the current page");
+            return;
+        }
+
+        ComboBox<?> cols = FX.findComboBox(page, "columns");
+        ComboBox<?> pols = FX.findComboBox(page, "columnResizePolicy");
+        if ((cols == null) || (pols == null)) {
+            status.setText("No columns or column resize policy options in the current page");
+            return;
+        }
+
+        control = c;
+        columnsSelector = cols;
+        policySelector = pols;
+        originalColumns = cols.getSelectionModel().getSelectedIndex();
+        originalPolicy = Tables.resizePolicy(c);
+        originalMaxWidth = c.getMaxWidth();
+        done.clear();
+
+        for (int i = 0; i < cols.getItems().size(); i++) {
+            String colName = String.valueOf(cols.getItems().get(i));
+            if (!COLUMN_SETS.contains(colName)) {
+                continue;
+            }
+            for (int j = 0; j < pols.getItems().size(); j++) {
+                String polName = String.valueOf(pols.getItems().get(j));
+                if (polName.startsWith("<")) {
+                    continue;
+                }
+                plan(i, colName, j, polName);
+            }
+        }
+
+        results.appendText(UserActivity.getPage() + " (" + control.getClass().getSimpleName() + ")\n");
+        results.appendText(String.format(
+            "%-16s %-32s %-6s %6s %10s %10s %9s %10s %10s %9s\n",
+            "columns", "policy", "event", "events", "pol p50", "pol max", "pol/evt", "frame p50", "frame max", "setW/evt"
+        ));
+
+        run(c);
+    }
+
+    private void plan(int columnsIndex, String columns, int policyIndex, String policy) {
+        addTask(() -> {
+            control.setMaxWidth(originalMaxWidth);
+            // bypassing the options so each run gets fresh columns and an unwrapped policy
+            Tables.setColumns(control, valueAt(columnsSelector, columnsIndex));
+            Tables.setResizePolicy(control, valueAt(policySelector, policyIndex));
+            wrapPolicy();
+        });
+
+        Result drag = new Result(columns, policy, "Drag");
+        for (int i = 0; i < DRAG_STEPS; i++) {
+            double delta = (i < DRAG_STEPS / 2) ? DRAG_DELTA : -DRAG_DELTA;
+            addStep(drag, () -> {
+                List<? extends TableColumnBase<?, ?>> cs = Tables.visibleLeafColumns(control);
+                if (!cs.isEmpty()) {
+                    Tables.resizeColumn(control, cs.get(cs.size() / 2), delta);
+                }
+            });
+        }
+
+        addTask(() -> {
+            baseWidth = control.getWidth();
+        });
+
+        Result width = new Result(columns, policy, "Width");
+        for (int i = 0; i < WIDTH_STEPS; i++) {
+            int step = (i < WIDTH_STEPS / 2) ? (i + 1) : (WIDTH_STEPS - i - 1);
+            addStep(width, () -> {
+                control.setMaxWidth(baseWidth - step * WIDTH_DELTA);
+            });
+        }
+
+        addTask(() -> {
+            control.setMaxWidth(originalMaxWidth);
+        });
+    }
+
+    /** adds a task which resets the policy counters before the action, and adds the measurements to the result */
+    private void addStep(Result r, Runnable action) {
+        addTask(() -> {
+            policyTime = 0;
+            policyCalls = 0;
+            widthCalls = 0;
+            action.run();
+        }, (t) -> {
+            r.add(t, policyTime, policyCalls, widthCalls);
+            if (r.count == 1) {
+                status.setText(r.columns + ", " + r.policy + ", " + r.scenario);
+            }
+            if (!done.contains(r)) {
+                done.add(r);
+            }
+        });
+    }
+
+    @Override
+    protected void onStop(boolean complete) {
+        for (Result r: done) {
+            results.appendText(format(r));
+        }
+
+        control.setMaxWidth(originalMaxWidth);
+        Tables.setColumns(control, valueAt(columnsSelector, originalColumns));
+        Tables.setResizePolicy(control, originalPolicy);
+
+        control = null;
+        columnsSelector = null;
+        policySelector = null;
+        originalPolicy = null;
+        done.clear();
+    }
+
+    /** replaces the current resize policy with a wrapper which measures the policy */
+    private void wrapPolicy() {
+        if (control instanceof TableView<?> t) {
+            wrapPolicy(t);
+        } else if (control instanceof TreeTableView<?> t) {
+            wrapPolicy(t);
+        }
+    }
+
+    private <S> void wrapPolicy(TableView<S> t) {
+        Callback<? super TableView.ResizeFeatures<S>, Boolean> p = t.getColumnResizePolicy();
+        if (p != null) {
+            t.setColumnResizePolicy((rf) -> {
+                TableColumn<S, ?> column = Tables.cast(rf.getColumn());
+                TableView.ResizeFeatures<S> f = new TableView.ResizeFeatures<>(t, column, rf.getDelta()) {
+                    @Override
+                    public void setColumnWidth(TableColumnBase<S, ?> col, double width) {
+                        widthCalls++;
+                        super.setColumnWidth(col, width);
+                    }
+                };
+                return measure(() -> p.call(f));
+            });
+        }
+    }
+
+    private <S> void wrapPolicy(TreeTableView<S> t) {
+        Callback<? super TreeTableView.ResizeFeatures<S>, Boolean> p = t.getColumnResizePolicy();
+        if (p != null) {
+            t.setColumnResizePolicy((rf) -> {
+                TreeTableColumn<S, ?> column = Tables.cast(rf.getColumn());
+                TreeTableView.ResizeFeatures<S> f = new TreeTableView.ResizeFeatures<>(t, column, rf.getDelta()) {
+                    @Override
+                    public void setColumnWidth(TableColumnBase<TreeItem<S>, ?> col, double width) {
+                        widthCalls++;
+                        super.setColumnWidth(col, width);
+                    }
+                };
+                return measure(() -> p.call(f));
+            });
+        }
+    }
+
+    private Boolean measure(Supplier<Boolean> policy) {
+        long start = System.nanoTime();
+        try {
+            return policy.get();
+        } finally {
+            policyTime += (System.nanoTime() - start);
+            policyCalls++;
+        }
+    }
+
+    private static String format(Result r) {
+        int n = r.count;
+        long[] fs = Arrays.copyOf(r.frames, n);
+        long[] ps = Arrays.copyOf(r.policies, n);
+        Arrays.sort(fs);
+        Arrays.sort(ps);
+        String policy = (r.policy.length() > 32) ? r.policy.substring(0, 32) : r.policy;
+        return String.format(
+            "%-16s %-32s %-6s %6d %10.3f %10.3f %9.1f %10.2f %10.2f %9.1f\n",
+            r.columns,
+            policy,
+            r.scenario,
+            n,
+            ps[n / 2] / 1e6,
+            ps[n - 1] / 1e6,
+            r.calls / (double)n,
+            fs[n / 2] / 1e6,
+            fs[n - 1] / 1e6,
+            r.setWidthCalls / (double)n
+        );
+    }
+}
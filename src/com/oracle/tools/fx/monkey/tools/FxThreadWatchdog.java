@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * FX Application Thread Watchdog.
+ *
+ * A daemon thread periodically posts a heartbeat via {@link Platform#runLater(Runnable)}.
+ * When the heartbeat does not get processed within the threshold, the stack trace of the
+ * FX application thread is captured, and a {@link Stall} is recorded once the
+ * FX application thread becomes responsive again.
+ */
+public class FxThreadWatchdog {
+    /** a single stall of the FX application thread */
+    public static record Stall(
+        long time,
+        long duration,
+        String page,
+        String action,
+        StackTraceElement[] stack
+    ) { }
+
+    private static final long POLL_MS = 10;
+    private static final int MAX_STALLS = 1000;
+    private static FxThreadWatchdog instance;
+    private final Thread fxThread;
+    private final ObservableList<Stall> stalls = FXCollections.observableArrayList();
+    private volatile boolean running;
+    private volatile long threshold = 100;
+    // set when the heartbeat is posted, cleared when it is processed, guarded by this
+    private long posted;
+    private long postedMillis;
+    private StackTraceElement[] stack;
+    private String page;
+    private String action;
+
+    private FxThreadWatchdog(Thread fxThread) {
+        this.fxThread = fxThread;
+    }
+
+    /** starts the watchdog, must be called in the FX application thread */
+    public static void start() {
+        if (instance == null) {
+            instance = new FxThreadWatchdog(Thread.currentThread());
+        }
+
+        if (!instance.running) {
+            instance.running = true;
+            Thread t = new Thread(instance::run, "FxThreadWatchdog");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    public static void stop() {
+        if (instance != null) {
+            instance.running = false;
+        }
+    }
+
+    public static boolean isRunning() {
+        return (instance != null) && instance.running;
+    }
+
+    /** returns the recorded stalls, to be accessed in the FX application thread only */
+    public static ObservableList<Stall> getStalls() {
+        if (instance == null) {
+            return FXCollections.emptyObservableList();
+        }
+        return instance.stalls;
+    }
+
+    /** sets the stall threshold in milliseconds */
+    public static void setThreshold(long ms) {
+        if (instance != null) {
+            instance.threshold = ms;
+        }
+    }
+
+    public static long getThreshold() {
+        return instance == null ? 0 : instance.threshold;
+    }
+
+    private void run() {
+        while (running) {
+            check();
+
+            try {
+                Thread.sleep(POLL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void check() {
+        long now = System.nanoTime();
+        if (posted == 0) {
+            posted = now;
+            postedMillis = System.currentTimeMillis();
+            stack = null;
+            Platform.runLater(this::heartbeat);
+        } else if (stack == null) {
+            long elapsed = (now - posted) / 1_000_000L;
+            if (elapsed >= threshold) {
+                // capture the state while the FX thread is still busy
+                stack = fxThread.getStackTrace();
+                page = UserActivity.getPage();
+                action = UserActivity.getLastAction();
+            }
+        }
+    }
+
+    private void heartbeat() {
+        Stall s;
+        synchronized (this) {
+            if (stack == null) {
+                s = null;
+            } else {
+                long duration = (System.nanoTime() - posted) / 1_000_000L;
+                s = new Stall(postedMillis, duration, page, action, stack);
+            }
+            posted = 0;
+            stack = null;
+        }
+
+        if (s != null) {
+            if (stalls.size() >= MAX_STALLS) {
+                stalls.remove(0);
+            }
+            stalls.add(s);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.ToolBar;
+import javafx.scene.control.TreeTableCell;
+import javafx.scene.control.TreeTableRow;
+import javafx.scene.control.skin.TableHeaderRow;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Horizontal Scroll Benchmark.
+ *
+ * Applies the wide column sets of the TableView or TreeTableView page, one at a time, and reports:
+ * <ul>
+ * <li>the time from setting the columns to the end of the first layout pass (header construction, CSS, layout)
+ * <li>the time of a forced layout of the whole header subtree
+ * <li>the heap growth after the columns are shown (measured after a GC, so approximate)
+ * <li>the frame time of the horizontal scrolling (smooth steps, then random jumps), one step per pulse
+ * <li>the number of cells per row, and the number of cells created while scrolling
+ * </ul>
+ */
+public class HorizontalScrollBenchmarkPane extends PulseBenchmarkPane {
+    private static final List<String> COLUMN_SETS = List.of(
+        "20 Equal", "200 Equal", "500 Mixed", "1,000 Mixed", "2,000 Equal", "5,000 Mixed"
+    );
+    private static final int SMOOTH_STEPS = 50;
+    private static final double SMOOTH_DELTA = 100;
+    private static final int JUMP_STEPS = 20;
+    private final Supplier<Node> pageSupplier;
+    // the state of the current run
+    private Control control;
+    private ComboBox<?> columnsSelector;
+    private int originalColumns;
+    private final WeakHashMap<IndexedCell<?>, Boolean> seen = new WeakHashMap<>();
+    private final Random random = new Random();
+
+    private static class Result {
+        public final String columns;
+        public int leafColumns;
+        public long initTime;
+        public long headerTime;
+        public long memBefore;
+        public long memAfter;
+        public long[] frames = new long[SMOOTH_STEPS + JUMP_STEPS];
+        public int count;
+        public long cells;
+        public long rows;
+        public int maxCellsPerRow;
+        public int created;
+
+        public Result(String columns) {
+            this.columns = columns;
+        }
+    }
+
+    public HorizontalScrollBenchmarkPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "HorizontalScrollBenchmarkPane");
+        this.pageSupplier = pageSupplier;
+
+        Button startButton = FX.button("Start", this::start);
+        Button stopButton = FX.button("Stop", this::stop);
+
+        setTop(new ToolBar(startButton, stopButton, status));
+    }
+
+    private void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        Node page = pageSupplier.get();
+        Node content = (page == null) ? null : page.lookup(".test-content");
+        Control c = Tables.findTable(content);
+        if ((c == null) || (c.getScene() == null)) {
+            status.setText("No TableView or TreeTableView in the current page");
+            return;
+        }
+
+        ComboBox<?> cols = FX.findComboBox(page, "columns");
+        if (cols == null) {
+            status.setText("No columns option in the current page");
+            return;
+        }
+
+        control = c;
+        columnsSelector = cols;
+        originalColumns = cols.getSelectionModel().getSelectedIndex();
+
+        for (int i = 0; i < cols.getItems().size(); i++) {
+            String name = String.valueOf(cols.getItems().get(i));
+            if (COLUMN_SETS.contains(name)) {
+                plan(i, new Result(name));
+            }
+        }
+
+        results.appendText(UserActivity.getPage() + " (" + control.getClass().getSimpleName() + ")\n");
+        results.appendText(String.format(
+            "%-12s %6s %9s %9s %8s %6s %8s %8s %9s %9s %8s\n",
+            "columns", "leaf", "init ms", "header ms", "heap MB", "frames", "p50 ms", "max ms", "cells/row", "max/row", "created"
+        ));
+
+        run(c);
+    }
+
+    private void plan(int columnsIndex, Result r) {
+        addTask(() -> {
+            status.setText(r.columns);
+            Tables.setColumns(control, List.of());
+        });
+
+        addTask(() -> {
+            r.memBefore = usedMemory();
+        });
+
+        addTask(() -> {
+            Tables.setColumns(control, valueAt(columnsSelector, columnsIndex));
+            r.leafColumns = Tables.visibleLeafColumns(control).size();
+        }, (t) -> r.initTime = t);
+
+        addTask(() -> {
+            r.memAfter = usedMemory();
+            r.headerTime = forceHeaderLayout(control);
+        });
+
+        addTask(() -> {
+            random.setSeed(1);
+            seen.clear();
+            setHorizontalPosition(0);
+            scanRows(control, null);
+        });
+
+        for (int i = 0; i < SMOOTH_STEPS; i++) {
+            addTask(() -> {
+                ScrollBar sb = findHorizontalScrollBar(control);
+                if (sb != null) {
+                    setHorizontalPosition(sb.getValue() + SMOOTH_DELTA);
+                }
+            }, (t) -> frame(r, t));
+        }
+
+        for (int i = 0; i < JUMP_STEPS; i++) {
+            addTask(() -> {
+                ScrollBar sb = findHorizontalScrollBar(control);
+                if (sb != null) {
+                    setHorizontalPosition(sb.getMin() + random.nextDouble() * (sb.getMax() - sb.getMin()));
+                }
+            }, (t) -> frame(r, t));
+        }
+
+        addTask(() -> {
+            results.appendText(format(r));
+        });
+    }
+
+    private void frame(Result r, long time) {
+        if (r.count < r.frames.length) {
+            r.frames[r.count++] = time;
+        }
+        scanRows(control, r);
+    }
+
+    @Override
+    protected void onStop(boolean complete) {
+        Tables.setColumns(control, valueAt(columnsSelector, originalColumns));
+
+        control = null;
+        columnsSelector = null;
+        seen.clear();
+    }
+
+    private void setHorizontalPosition(double value) {
+        ScrollBar sb = findHorizontalScrollBar(control);
+        if (sb != null) {
+            sb.setValue(Math.max(sb.getMin(), Math.min(sb.getMax(), value)));
+        }
+    }
+
+    /** counts the cells in each row, and the cells not seen before when the result is not null */
+    private void scanRows(Node n, Result r) {
+        if ((n instanceof TableRow) || (n instanceof TreeTableRow)) {
+            if (!((IndexedCell<?>)n).isVisible()) {
+                return;
+            }
+            int cells = 0;
+            for (Node ch: ((Parent)n).getChildrenUnmodifiable()) {
+                if ((ch instanceof TableCell) || (ch instanceof TreeTableCell)) {
+                    cells++;
+                    if ((seen.put((IndexedCell<?>)ch, Boolean.TRUE) == null) && (r != null)) {
+                        r.created++;
+                    }
+                }
+            }
+            if (r != null) {
+                r.rows++;
+                r.cells += cells;
+                r.maxCellsPerRow = Math.max(r.maxCellsPerRow, cells);
+            }
+            return;
+        }
+
+        if (n instanceof Parent p) {
+            for (Node ch: p.getChildrenUnmodifiable()) {
+                scanRows(ch, r);
+            }
+        }
+    }
+
+    /** marks every node in the header subtree dirty, then times a synchronous layout of the header */
+    private static long forceHeaderLayout(Control c) {
+        TableHeaderRow h = Tables.findHeaderRow(c);
+        if (h == null) {
+            return 0;
+        }
+        markDirty(h);
+        long start = System.nanoTime();
+        h.layout();
+        return System.nanoTime() - start;
+    }
+
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static String format(Result r) {
+        int n = r.count;
+        long[] ts = Arrays.copyOf(r.frames, n);
+        Arrays.sort(ts);
+        return String.format(
+            "%-12s %6d %9.1f %9.1f %8.1f %6d %8.2f %8.2f %9.1f %9d %8d\n",
+            r.columns,
+            r.leafColumns,
+            r.initTime / 1e6,
+            r.headerTime / 1e6,
+            (r.memAfter - r.memBefore) / (1024.0 * 1024.0),
+            n,
+            (n == 0) ? 0.0 : ts[n / 2] / 1e6,
+            (n == 0) ? 0.0 : ts[n - 1] / 1e6,
+            (r.rows == 0) ? 0.0 : r.cells / (double)r.rows,
+            r.maxCellsPerRow,
+            r.created
+        );
+    }
+
+    private static ScrollBar findHorizontalScrollBar(Node n) {
+        return (ScrollBar)FX.find(n, (x) -> (x instanceof ScrollBar sb) && (sb.getOrientation() == Orientation.HORIZONTAL));
+    }
+}
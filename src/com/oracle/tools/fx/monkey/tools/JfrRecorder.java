@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+import com.oracle.tools.fx.monkey.util.JfrEvents;
+
+/**
+ * Starts and stops a JDK Flight Recorder recording which includes the Monkey Tester events.
+ */
+public class JfrRecorder {
+    private static Recording recording;
+
+    public static boolean isRecording() {
+        return recording != null;
+    }
+
+    public static void start() {
+        if (recording != null) {
+            return;
+        }
+
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("profile"));
+            r.setName("MonkeyTester");
+            r.enable(JfrEvents.PageCreate.class);
+            r.enable(JfrEvents.OptionChange.class);
+            r.enable(JfrEvents.SkinChange.class);
+            r.enable(JfrEvents.SettingsSave.class);
+            r.start();
+            recording = r;
+        } catch (IOException | ParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** asks the user for the output file, then stops the recording and writes it to the file */
+    public static void stop(Window parent) {
+        if (recording == null) {
+            return;
+        }
+
+        FileChooser ch = new FileChooser();
+        ch.setTitle("Save JFR Recording");
+        ch.setInitialFileName("monkey.jfr");
+        ch.getExtensionFilters().add(new FileChooser.ExtensionFilter("JFR Recording", "*.jfr"));
+        File f = ch.showSaveDialog(parent);
+        if (f == null) {
+            // keep recording
+            return;
+        }
+
+        Recording r = recording;
+        recording = null;
+        try {
+            r.stop();
+            r.dump(f.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            r.close();
+        }
+    }
+}
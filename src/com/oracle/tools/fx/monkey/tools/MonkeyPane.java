@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToolBar;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.shape.Shape;
+import javafx.stage.Window;
+import com.oracle.tools.fx.monkey.options.IntOption;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.ObjectSelector;
+import com.oracle.tools.fx.monkey.util.SyntheticEvents;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Monkey Event Generator.
+ *
+ * Fires random mouse clicks, drags, scroll events and key presses at the content of the current page,
+ * at the specified rate, using a reproducible seed.  Records the latency from each event to the end of
+ * the next pulse, and any exceptions thrown.
+ *
+ * The events are synthesized and dispatched via {@link SyntheticEvents}, so the mouse pointer
+ * and the other applications are not affected.
+ */
+public class MonkeyPane extends BorderPane {
+    private static final long TARGET_REFRESH_NS = 500_000_000L;
+    private static final int MAX_LATENCIES = 1_000_000;
+    private static final KeyCode[] KEYS = {
+        KeyCode.A, KeyCode.B, KeyCode.C, KeyCode.X, KeyCode.Y, KeyCode.Z, KeyCode.DIGIT1, KeyCode.SPACE,
+        KeyCode.LEFT, KeyCode.RIGHT, KeyCode.UP, KeyCode.DOWN, KeyCode.HOME, KeyCode.END,
+        KeyCode.PAGE_UP, KeyCode.PAGE_DOWN, KeyCode.BACK_SPACE, KeyCode.DELETE, KeyCode.ENTER, KeyCode.TAB
+    };
+    private static final String[] CATEGORIES = { "Cells", "Controls", "Shapes", "Other" };
+    private final Supplier<Node> pageSupplier;
+    private final ObjectSelector<Integer> rate;
+    private final ObjectSelector<Integer> duration;
+    private final TextField seedField;
+    private final IntOption[] weights = new IntOption[CATEGORIES.length];
+    private final Label status;
+    private final TextArea results;
+    private final Runnable pulseListener = this::handlePulse;
+    private volatile boolean running;
+    private final AtomicInteger queued = new AtomicInteger();
+    // run state, accessed in the FX thread
+    private Random random;
+    private Node root;
+    private Scene scene;
+    private String pageName;
+    private Thread.UncaughtExceptionHandler oldHandler;
+    private final ArrayList<List<Node>> targets = new ArrayList<>();
+    private long targetsTime;
+    private long startTime;
+    private long endTime;
+    private long[] pending = new long[256];
+    private int pendingCount;
+    private long[] latencies;
+    private int latencyCount;
+    private final long[] eventCounts = new long[4];
+    private final TreeMap<String, Integer> exceptions = new TreeMap<>();
+    private long pulses;
+
+    public MonkeyPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "MonkeyPane");
+        this.pageSupplier = pageSupplier;
+
+        rate = new ObjectSelector<>("rate", (v) -> { });
+        rate.addChoice("10 / s", 10);
+        rate.addChoice("100 / s", 100);
+        rate.addChoice("1,000 / s", 1_000);
+        rate.addChoice("5,000 / s", 5_000);
+        rate.select(1);
+
+        duration = new ObjectSelector<>("duration", (v) -> { });
+        duration.addChoice("10 s", 10);
+        duration.addChoice("60 s", 60);
+        duration.addChoice("10 min", 600);
+        duration.addChoice("Until Stopped", -1);
+        duration.select(0);
+
+        seedField = new TextField("1");
+        seedField.setPrefColumnCount(8);
+
+        GridPane wp = new GridPane();
+        wp.setHgap(5);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            weights[i] = new IntOption("weight" + CATEGORIES[i], 0, 10, (i == 0) ? 5 : (i == 1) ? 3 : 1);
+            weights[i].setPrefWidth(70);
+            wp.add(new Label(CATEGORIES[i] + ":"), 2 * i, 0);
+            wp.add(weights[i], 2 * i + 1, 0);
+        }
+
+        Button startButton = FX.button("Start", this::start);
+        Button stopButton = FX.button("Stop", this::stop);
+
+        status = new Label();
+
+        results = new TextArea();
+        results.setEditable(false);
+        results.setWrapText(false);
+        results.setStyle("-fx-font-family:monospace;");
+
+        ToolBar tb1 = new ToolBar(
+            new Label("Rate:"), rate,
+            new Label("Duration:"), duration,
+            new Label("Seed:"), seedField,
+            startButton,
+            stopButton
+        );
+        ToolBar tb2 = new ToolBar(new Label("Target Weights:"), wp, status);
+
+        setTop(new BorderPane(tb2, tb1, null, null, null));
+        setCenter(results);
+
+        sceneProperty().
+            flatMap(Scene::windowProperty).
+            flatMap(Window::showingProperty).
+            orElse(Boolean.FALSE).
+            addListener((s, p, on) -> {
+                if (!on) {
+                    stop();
+                }
+            });
+    }
+
+    private void start() {
+        if (running) {
+            return;
+        }
+
+        Node page = pageSupplier.get();
+        Node content = (page == null) ? null : page.lookup(".test-content");
+        if ((content == null) || (content.getScene() == null)) {
+            status.setText("No test content in the current page");
+            return;
+        }
+
+        long seed;
+        try {
+            seed = Long.parseLong(seedField.getText().trim());
+        } catch (NumberFormatException e) {
+            seed = System.currentTimeMillis();
+            seedField.setText(String.valueOf(seed));
+        }
+
+        random = new Random(seed);
+        root = content;
+        scene = content.getScene();
+        pageName = UserActivity.getPage();
+        targetsTime = 0;
+        pendingCount = 0;
+        latencies = new long[1024];
+        latencyCount = 0;
+        Arrays.fill(eventCounts, 0);
+        exceptions.clear();
+        pulses = 0;
+        startTime = System.nanoTime();
+        int sec = duration.getSelectedValue();
+        endTime = (sec < 0) ? Long.MAX_VALUE : startTime + sec * 1_000_000_000L;
+
+        scene.addPostLayoutPulseListener(pulseListener);
+
+        Thread fx = Thread.currentThread();
+        oldHandler = fx.getUncaughtExceptionHandler();
+        fx.setUncaughtExceptionHandler((t, e) -> {
+            addException(e);
+            if (oldHandler != null) {
+                oldHandler.uncaughtException(t, e);
+            }
+        });
+
+        int perSecond = rate.getSelectedValue();
+        running = true;
+        Thread t = new Thread(() -> drive(perSecond), "Monkey");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        scene.removePostLayoutPulseListener(pulseListener);
+        Thread.currentThread().setUncaughtExceptionHandler(oldHandler);
+        oldHandler = null;
+
+        results.appendText(report());
+        status.setText(null);
+        root = null;
+        scene = null;
+        latencies = null;
+        targets.clear();
+    }
+
+    /** posts batches of events to the FX thread, runs in the background thread */
+    private void drive(int perSecond) {
+        long t0 = System.nanoTime();
+        long sent = 0;
+        while (running) {
+            try {
+                Thread.sleep(perSecond >= 1_000 ? 1 : 5);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long due = (System.nanoTime() - t0) * perSecond / 1_000_000_000L;
+            int n = (int)Math.min(due - sent, perSecond);
+            if (n > 0) {
+                sent += n;
+                // drop the events when the FX thread cannot keep up
+                if (queued.get() < 2) {
+                    queued.incrementAndGet();
+                    Platform.runLater(() -> {
+                        queued.decrementAndGet();
+                        fire(n);
+                    });
+                }
+            }
+        }
+    }
+
+    private void fire(int count) {
+        if (!running) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now > endTime) {
+            stop();
+            return;
+        }
+
+        if ((now - targetsTime) > TARGET_REFRESH_NS) {
+            collectTargets();
+            targetsTime = now;
+        }
+
+        for (int i = 0; i < count; i++) {
+            Node target = pickTarget();
+            if (target == null) {
+                break;
+            }
+
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[pendingCount++] = System.nanoTime();
+
+            try {
+                fireRandomEvent(target);
+            } catch (Throwable e) {
+                addException(e);
+            }
+        }
+
+        status.setText(pageName + ": " + total(eventCounts) + " events, " + exceptionCount() + " exceptions");
+    }
+
+    private void handlePulse() {
+        if (pendingCount == 0) {
+            return;
+        }
+
+        pulses++;
+        long now = System.nanoTime();
+        for (int i = 0; i < pendingCount; i++) {
+            if (latencyCount < MAX_LATENCIES) {
+                if (latencyCount == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                }
+                latencies[latencyCount++] = now - pending[i];
+            }
+        }
+        pendingCount = 0;
+    }
+
+    private void collectTargets() {
+        targets.clear();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            targets.add(new ArrayList<>());
+        }
+        collectTargets(root);
+    }
+
+    private void collectTargets(Node n) {
+        if (!n.isVisible()) {
+            return;
+        }
+
+        Bounds b = n.getLayoutBounds();
+        if ((b.getWidth() > 0) && (b.getHeight() > 0)) {
+            int cat;
+            if (n instanceof IndexedCell) {
+                cat = 0;
+            } else if (n instanceof Control) {
+                cat = 1;
+            } else if (n instanceof Shape) {
+                cat = 2;
+            } else {
+                cat = 3;
+            }
+            targets.get(cat).add(n);
+        }
+
+        if (n instanceof Parent p) {
+            for (Node ch: p.getChildrenUnmodifiable()) {
+                collectTargets(ch);
+            }
+        }
+    }
+
+    private Node pickTarget() {
+        int sum = 0;
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            if (!targets.get(i).isEmpty()) {
+                sum += weights[i].getValue();
+            }
+        }
+        if (sum == 0) {
+            return null;
+        }
+
+        int r = random.nextInt(sum);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            List<Node> ns = targets.get(i);
+            if (!ns.isEmpty()) {
+                r -= weights[i].getValue();
+                if (r < 0) {
+                    return ns.get(random.nextInt(ns.size()));
+                }
+            }
+        }
+        return null;
+    }
+
+    private void fireRandomEvent(Node target) {
+        Bounds b = target.localToScene(target.getLayoutBounds());
+        double x = b.getMinX() + random.nextDouble() * b.getWidth();
+        double y = b.getMinY() + random.nextDouble() * b.getHeight();
+
+        int type = random.nextInt(100);
+        if (type < 40) {
+            // click
+            eventCounts[0]++;
+            SyntheticEvents.mouse(target, MouseEvent.MOUSE_PRESSED, x, y, MouseButton.PRIMARY, 1, true);
+            SyntheticEvents.mouse(target, MouseEvent.MOUSE_RELEASED, x, y, MouseButton.PRIMARY, 1, false);
+            SyntheticEvents.mouse(target, MouseEvent.MOUSE_CLICKED, x, y, MouseButton.PRIMARY, 1, false);
+        } else if (type < 55) {
+            // drag
+            eventCounts[1]++;
+            SyntheticEvents.mouse(target, MouseEvent.MOUSE_PRESSED, x, y, MouseButton.PRIMARY, 1, true);
+            double dx = (random.nextDouble() - 0.5) * 100;
+            double dy = (random.nextDouble() - 0.5) * 100;
+            for (int i = 1; i <= 5; i++) {
+                SyntheticEvents.mouse(target, MouseEvent.MOUSE_DRAGGED, x + dx * i / 5, y + dy * i / 5, MouseButton.PRIMARY, 1, true);
+            }
+            SyntheticEvents.mouse(target, MouseEvent.MOUSE_RELEASED, x + dx, y + dy, MouseButton.PRIMARY, 1, false);
+        } else if (type < 80) {
+            // scroll
+            eventCounts[2]++;
+            double delta = (random.nextBoolean() ? 1 : -1) * 40 * (1 + random.nextInt(3));
+            SyntheticEvents.scroll(target, x, y, 0, delta);
+        } else {
+            // key press, sent to the focus owner if within the content
+            eventCounts[3]++;
+            Node owner = scene.getFocusOwner();
+            Node t = isInContent(owner) ? owner : target;
+            KeyCode k = KEYS[random.nextInt(KEYS.length)];
+            SyntheticEvents.key(t, KeyEvent.KEY_PRESSED, KeyEvent.CHAR_UNDEFINED, k);
+            if (k.isLetterKey() || k.isDigitKey() || (k == KeyCode.SPACE)) {
+                String ch = k.getChar().toLowerCase();
+                SyntheticEvents.key(t, KeyEvent.KEY_TYPED, ch, KeyCode.UNDEFINED);
+            }
+            SyntheticEvents.key(t, KeyEvent.KEY_RELEASED, KeyEvent.CHAR_UNDEFINED, k);
+        }
+    }
+
+    private boolean isInContent(Node n) {
+        for (; n != null; n = n.getParent()) {
+            if (n == root) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addException(Throwable e) {
+        StackTraceElement[] st = e.getStackTrace();
+        String key = e.getClass().getName() + ((st.length > 0) ? " at " + st[0] : "");
+        exceptions.merge(key, 1, Integer::sum);
+    }
+
+    private int exceptionCount() {
+        int n = 0;
+        for (int v: exceptions.values()) {
+            n += v;
+        }
+        return n;
+    }
+
+    private static long total(long[] counts) {
+        long n = 0;
+        for (long v: counts) {
+            n += v;
+        }
+        return n;
+    }
+
+    private String report() {
+        double sec = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        long total = total(eventCounts);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(pageName).append(": seed=").append(seedField.getText());
+        sb.append(String.format(", %.1f s, %d events (%.0f / s), %d pulses\n", sec, total, total / sec, pulses));
+        sb.append(String.format(
+            "  clicks=%d drags=%d scrolls=%d keys=%d\n",
+            eventCounts[0], eventCounts[1], eventCounts[2], eventCounts[3]
+        ));
+
+        if (latencyCount > 0) {
+            long[] ls = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(ls);
+            sb.append(String.format(
+                "  event-to-pulse latency (ms): p50=%.2f p90=%.2f p99=%.2f max=%.2f\n",
+                ls[latencyCount / 2] / 1e6,
+                ls[(int)(latencyCount * 0.9)] / 1e6,
+                ls[(int)(latencyCount * 0.99)] / 1e6,
+                ls[latencyCount - 1] / 1e6
+            ));
+        }
+
+        sb.append("  exceptions: ").append(exceptionCount()).append('\n');
+        for (Map.Entry<String, Integer> en: exceptions.entrySet()) {
+            sb.append(String.format("%8d  %s\n", en.getValue(), en.getKey()));
+        }
+        sb.append('\n');
+        return sb.toString();
+    }
+}
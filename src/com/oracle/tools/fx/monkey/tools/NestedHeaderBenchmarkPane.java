@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.ToolBar;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.skin.TableHeaderRow;
+import com.oracle.tools.fx.monkey.util.ColumnBuilder;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Nested Column Header Benchmark.
+ *
+ * Replaces the columns of the TableView or TreeTableView in the current page with a nested hierarchy
+ * of the specified depth and breadth (the number of children at each level), generated by
+ * {@link ColumnBuilder#nested(int, int)}, and measures:
+ * <ul>
+ * <li>the time to build the column hierarchy (the model only)
+ * <li>the time from setting the columns to the end of the first layout pass (header construction, CSS, layout)
+ * <li>the time of a forced CSS pass and of a forced layout of the whole header subtree
+ * <li>the frame time of reordering the top level columns and the deepest columns
+ *     (the way a header drag does, with a single {@code setAll()}), and of resizing a deepest leaf column
+ * </ul>
+ * The Sweep button repeats the measurements for each depth from 1 to the selected one,
+ * to show how the cost grows with the depth.
+ * The generated columns have no cell value factory, the original columns are restored at the end.
+ * Combinations which generate more than 50,000 leaf columns are refused.
+ */
+public class NestedHeaderBenchmarkPane extends PulseBenchmarkPane {
+    private static final int REORDER_STEPS = 10;
+    private static final int RESIZE_STEPS = 10;
+    private static final String FORCE_CSS = "nested-header-benchmark";
+    /** larger hierarchies take minutes to build and may run out of memory (8 x 8 is 16,777,216 leaves) */
+    private static final long MAX_LEAVES = 50_000;
+    private final Supplier<Node> pageSupplier;
+    private final ComboBox<Integer> depth;
+    private final ComboBox<Integer> breadth;
+    // the state of the current run
+    private Control control;
+    private List<TableColumnBase<?, ?>> originalColumns;
+
+    private static class Result {
+        public final int depth;
+        public final int breadth;
+        public int leaves;
+        public int total;
+        public long buildTime;
+        public long showTime;
+        public long cssTime;
+        public long layoutTime;
+        public final long[] reorderTop = new long[REORDER_STEPS];
+        public final long[] reorderDeep = new long[REORDER_STEPS];
+        public final long[] resize = new long[RESIZE_STEPS];
+
+        public Result(int depth, int breadth) {
+            this.depth = depth;
+            this.breadth = breadth;
+        }
+    }
+
+    public NestedHeaderBenchmarkPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "NestedHeaderBenchmarkPane");
+        this.pageSupplier = pageSupplier;
+
+        depth = new ComboBox<>();
+        FX.name(depth, "depth");
+        depth.getItems().addAll(1, 2, 3, 4, 5, 6, 7, 8);
+        depth.getSelectionModel().select(Integer.valueOf(6));
+
+        breadth = new ComboBox<>();
+        FX.name(breadth, "breadth");
+        breadth.getItems().addAll(2, 3, 4, 5, 6, 8);
+        breadth.getSelectionModel().select(Integer.valueOf(4));
+
+        Button startButton = FX.button("Start", () -> start(false));
+        Button sweepButton = FX.button("Sweep", () -> start(true));
+        Button stopButton = FX.button("Stop", this::stop);
+
+        setTop(new ToolBar(
+            new Label("Depth:"),
+            depth,
+            new Label("Breadth:"),
+            breadth,
+            startButton,
+            sweepButton,
+            stopButton,
+            status
+        ));
+    }
+
+    private void start(boolean sweep) {
+        if (isRunning()) {
+            return;
+        }
+
+        Node page = pageSupplier.get();
+        Node content = (page == null) ? null : page.lookup(".test-content");
+        Control c = Tables.findTable(content);
+        if ((c == null) || (c.getScene() == null)) {
+            status.setText("No TableView or TreeTableView in the current page");
+            return;
+        }
+
+        int d = depth.getValue();
+        int b = breadth.getValue();
+        long leaves = (long)Math.pow(b, d);
+        if (leaves > MAX_LEAVES) {
+            status.setText(String.format(
+                "Depth %d, breadth %d: %,d leaf columns exceed the limit of %,d",
+                d, b, leaves, MAX_LEAVES));
+            return;
+        }
+
+        control = c;
+        originalColumns = new ArrayList<>(Tables.columns(c));
+
+        for (int i = (sweep ? 1 : d); i <= d; i++) {
+            plan(new Result(i, b));
+        }
+
+        results.appendText(UserActivity.getPage() + " (" + control.getClass().getSimpleName() + ")\n");
+        results.appendText(String.format(
+            "%5s %7s %6s %6s %8s %8s %8s %8s %10s %10s %10s %10s %10s %10s\n",
+            "depth", "breadth", "leaves", "total", "build ms", "show ms", "css ms", "layout ms",
+            "top p50", "top max", "deep p50", "deep max", "resize p50", "resize max"
+        ));
+
+        run(c);
+    }
+
+    private void plan(Result r) {
+        addTask(() -> {
+            status.setText("depth " + r.depth + ", breadth " + r.breadth);
+            Tables.columns(control).clear();
+        });
+
+        List<TableColumnBase<?, ?>> generated = new ArrayList<>();
+        addTask(() -> {
+            long start = System.nanoTime();
+            ColumnBuilder<TableColumnBase<?, ?>> b = new ColumnBuilder<>(createGenerator(control));
+            generated.addAll(b.nested(r.depth, r.breadth).asList());
+            r.buildTime = System.nanoTime() - start;
+            r.leaves = countLeaves(generated);
+            r.total = countAll(generated);
+        });
+
+        addTask(() -> {
+            Tables.columns(control).setAll(generated);
+        }, (t) -> r.showTime = t);
+
+        addTask(() -> {
+            TableHeaderRow h = Tables.findHeaderRow(control);
+            if (h != null) {
+                // a new style class invalidates the CSS of the whole subtree
+                h.getStyleClass().add(FORCE_CSS);
+                long start = System.nanoTime();
+                h.applyCss();
+                r.cssTime = System.nanoTime() - start;
+                h.getStyleClass().remove(FORCE_CSS);
+            }
+        });
+
+        addTask(() -> {
+            TableHeaderRow h = Tables.findHeaderRow(control);
+            if (h != null) {
+                markDirty(h);
+                long start = System.nanoTime();
+                h.layout();
+                r.layoutTime = System.nanoTime() - start;
+            }
+        });
+
+        for (int i = 0; i < REORDER_STEPS; i++) {
+            int ix = i;
+            addTask(() -> {
+                rotate(Tables.columns(control));
+            }, (t) -> r.reorderTop[ix] = t);
+        }
+
+        for (int i = 0; i < REORDER_STEPS; i++) {
+            int ix = i;
+            addTask(() -> {
+                TableColumnBase<?, ?> parent = findDeepestParent(Tables.columns(control));
+                if (parent != null) {
+                    rotate(parent.getColumns());
+                }
+            }, (t) -> r.reorderDeep[ix] = t);
+        }
+
+        for (int i = 0; i < RESIZE_STEPS; i++) {
+            int ix = i;
+            double delta = (i % 2 == 0) ? 5 : -5;
+            addTask(() -> {
+                TableColumnBase<?, ?> parent = findDeepestParent(Tables.columns(control));
+                TableColumnBase<?, ?> leaf = (parent == null) ? null : parent.getColumns().get(0);
+                if (leaf != null) {
+                    Tables.resizeColumn(control, leaf, delta);
+                }
+            }, (t) -> r.resize[ix] = t);
+        }
+
+        addTask(() -> {
+            results.appendText(format(r));
+        });
+    }
+
+    @Override
+    protected void onStop(boolean complete) {
+        Tables.columns(control).setAll(originalColumns);
+
+        control = null;
+        originalColumns = null;
+    }
+
+    /** moves the first column to the end with a single change, as the header drag does */
+    private static <T> void rotate(ObservableList<T> cs) {
+        if (cs.size() > 1) {
+            ArrayList<T> list = new ArrayList<>(cs);
+            list.add(list.remove(0));
+            cs.setAll(list);
+        }
+    }
+
+    /** returns the first column whose children are all leaves, or null */
+    private static TableColumnBase<?, ?> findDeepestParent(List<? extends TableColumnBase<?, ?>> cs) {
+        TableColumnBase<?, ?> parent = null;
+        while (!cs.isEmpty() && !cs.get(0).getColumns().isEmpty()) {
+            parent = cs.get(0);
+            cs = parent.getColumns();
+        }
+        return parent;
+    }
+
+    private static int countLeaves(List<? extends TableColumnBase<?, ?>> cs) {
+        int n = 0;
+        for (TableColumnBase<?, ?> c: cs) {
+            n += c.getColumns().isEmpty() ? 1 : countLeaves(c.getColumns());
+        }
+        return n;
+    }
+
+    private static int countAll(List<? extends TableColumnBase<?, ?>> cs) {
+        int n = cs.size();
+        for (TableColumnBase<?, ?> c: cs) {
+            n += countAll(c.getColumns());
+        }
+        return n;
+    }
+
+    private static String format(Result r) {
+        long[] top = r.reorderTop.clone();
+        long[] deep = r.reorderDeep.clone();
+        long[] rs = r.resize.clone();
+        Arrays.sort(top);
+        Arrays.sort(deep);
+        Arrays.sort(rs);
+        return String.format(
+            "%5d %7d %6d %6d %8.1f %8.1f %8.1f %8.1f %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f\n",
+            r.depth,
+            r.breadth,
+            r.leaves,
+            r.total,
+            r.buildTime / 1e6,
+            r.showTime / 1e6,
+            r.cssTime / 1e6,
+            r.layoutTime / 1e6,
+            top[top.length / 2] / 1e6,
+            top[top.length - 1] / 1e6,
+            deep[deep.length / 2] / 1e6,
+            deep[deep.length - 1] / 1e6,
+            rs[rs.length / 2] / 1e6,
+            rs[rs.length - 1] / 1e6
+        );
+    }
+
+    private static Supplier<TableColumnBase> createGenerator(Control c) {
+        if (c instanceof TreeTableView) {
+            return TreeTableColumn::new;
+        }
+        return TableColumn::new;
+    }
+}
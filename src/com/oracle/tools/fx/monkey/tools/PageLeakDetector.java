@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.util.Duration;
+
+/**
+ * Tracks every page created via a {@link WeakReference} and, when enabled, forces GC after each page switch
+ * in order to find the pages which are still reachable.
+ *
+ * The retained size of a page is estimated from the change in the used heap (after GC)
+ * observed at the first check after the page has been created, adjusted by the estimated
+ * size of the pages collected since the previous check.
+ *
+ * All the methods must be called in the FX application thread.
+ */
+public class PageLeakDetector {
+    /** heap usage after GC, measured after a page switch */
+    public static record Sample(int seq, String page, long heapUsed, int reachable) { }
+
+    /** still reachable page */
+    public static record Leak(int seq, String page, int age, long retained) { }
+
+    private static final int MAX_SAMPLES = 50;
+    private static final Duration CHECK_DELAY = Duration.millis(500);
+    private static final ReferenceQueue<Node> queue = new ReferenceQueue<>();
+    private static final ArrayList<PageRef> pages = new ArrayList<>();
+    private static final ObservableList<Sample> samples = FXCollections.observableArrayList();
+    private static final ObservableList<Leak> leaks = FXCollections.observableArrayList();
+    private static boolean enabled;
+    private static boolean checking;
+    private static int seq;
+    private static long lastUsed = -1;
+    /** estimated size of the pages collected since the last check */
+    private static long freed;
+
+    /** registers a newly created page */
+    public static void track(String title, Node page) {
+        if (page == null) {
+            return;
+        }
+
+        // keeps the list bounded when the checks are disabled
+        drainQueue();
+        pages.add(new PageRef(page, title, ++seq));
+
+        if (enabled) {
+            // let the old page go through at least one pulse
+            PauseTransition t = new PauseTransition(CHECK_DELAY);
+            t.setOnFinished((ev) -> check());
+            t.play();
+        }
+    }
+
+    /** enables forced GC and the check after each page switch */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** heap usage after each switch, the last sample at the end */
+    public static ObservableList<Sample> getSamples() {
+        return samples;
+    }
+
+    /** pages found reachable in the last check, excluding the current page */
+    public static ObservableList<Leak> getLeaks() {
+        return leaks;
+    }
+
+    /** forces GC in a background thread, then updates the samples and the leaks */
+    public static void check() {
+        if (checking) {
+            return;
+        }
+        checking = true;
+
+        Thread t = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            Platform.runLater(() -> update(used));
+        }, "PageLeakDetector");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void update(long used) {
+        checking = false;
+
+        drainQueue();
+
+        // pages created since the last check
+        ArrayList<PageRef> created = new ArrayList<>();
+        for (PageRef p: pages) {
+            if (p.retained < 0) {
+                created.add(p);
+            }
+        }
+        if ((lastUsed >= 0) && (created.size() > 0)) {
+            long delta = (used - lastUsed + freed) / created.size();
+            for (PageRef p: created) {
+                p.retained = Math.max(0, delta);
+            }
+        }
+        lastUsed = used;
+        freed = 0;
+
+        ArrayList<Leak> rv = new ArrayList<>();
+        int sz = pages.size();
+        for (int i = 0; i < sz - 1; i++) {
+            PageRef p = pages.get(i);
+            if (p.get() != null) {
+                rv.add(new Leak(p.seq, p.title, seq - p.seq, p.retained));
+            }
+        }
+        leaks.setAll(rv);
+
+        String current = (sz == 0) ? null : pages.get(sz - 1).title;
+        if (samples.size() >= MAX_SAMPLES) {
+            samples.remove(0);
+        }
+        samples.add(new Sample(seq, current, used, sz));
+    }
+
+    /** removes the collected pages */
+    private static void drainQueue() {
+        Reference<? extends Node> r;
+        while ((r = queue.poll()) != null) {
+            PageRef p = (PageRef)r;
+            pages.remove(p);
+            if (p.retained > 0) {
+                freed += p.retained;
+            }
+        }
+    }
+
+    private static class PageRef extends WeakReference<Node> {
+        public final String title;
+        public final int seq;
+        // estimated retained size in bytes, or -1 if unknown
+        public long retained = -1;
+
+        public PageRef(Node page, String title, int seq) {
+            super(page, queue);
+            this.title = title;
+            this.seq = seq;
+        }
+    }
+}
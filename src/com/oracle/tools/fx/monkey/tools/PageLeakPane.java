@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.geometry.Orientation;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.ToolBar;
+import javafx.scene.layout.BorderPane;
+import com.oracle.tools.fx.monkey.tools.PageLeakDetector.Leak;
+import com.oracle.tools.fx.monkey.tools.PageLeakDetector.Sample;
+import com.oracle.tools.fx.monkey.util.FX;
+
+/**
+ * Page Memory Retention Viewer.
+ */
+public class PageLeakPane extends BorderPane {
+    public PageLeakPane() {
+        FX.name(this, "PageLeakPane");
+
+        TableView<Leak> leaks = new TableView<>(PageLeakDetector.getLeaks());
+        leaks.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
+        leaks.setPlaceholder(new Label("No reachable pages other than the current one"));
+        {
+            TableColumn<Leak, Integer> c = new TableColumn<>();
+            c.setText("#");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().seq()));
+            c.setPrefWidth(50);
+            leaks.getColumns().add(c);
+        }
+        {
+            TableColumn<Leak, String> c = new TableColumn<>();
+            c.setText("Reachable Page");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().page()));
+            c.setPrefWidth(300);
+            leaks.getColumns().add(c);
+        }
+        {
+            TableColumn<Leak, Integer> c = new TableColumn<>();
+            c.setText("Switches Ago");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().age()));
+            c.setPrefWidth(100);
+            leaks.getColumns().add(c);
+        }
+        {
+            TableColumn<Leak, String> c = new TableColumn<>();
+            c.setText("Est. Retained KB");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(kb(d.getValue().retained())));
+            c.setPrefWidth(150);
+            leaks.getColumns().add(c);
+        }
+
+        TableView<Sample> samples = new TableView<>(PageLeakDetector.getSamples());
+        samples.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
+        {
+            TableColumn<Sample, Integer> c = new TableColumn<>();
+            c.setText("#");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().seq()));
+            c.setPrefWidth(50);
+            samples.getColumns().add(c);
+        }
+        {
+            TableColumn<Sample, String> c = new TableColumn<>();
+            c.setText("Current Page");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().page()));
+            c.setPrefWidth(300);
+            samples.getColumns().add(c);
+        }
+        {
+            TableColumn<Sample, String> c = new TableColumn<>();
+            c.setText("Heap Used After GC, KB");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(kb(d.getValue().heapUsed())));
+            c.setPrefWidth(150);
+            samples.getColumns().add(c);
+        }
+        {
+            TableColumn<Sample, Integer> c = new TableColumn<>();
+            c.setText("Reachable Pages");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().reachable()));
+            c.setPrefWidth(100);
+            samples.getColumns().add(c);
+        }
+
+        CheckBox enabled = new CheckBox("Force GC and check after each page switch");
+        enabled.setSelected(PageLeakDetector.isEnabled());
+        enabled.selectedProperty().addListener((s, p, on) -> PageLeakDetector.setEnabled(on));
+
+        Button checkButton = FX.button("Check Now", PageLeakDetector::check);
+
+        SplitPane split = new SplitPane(leaks, samples);
+        FX.name(split, "split");
+        split.setOrientation(Orientation.VERTICAL);
+        split.setDividerPositions(0.5);
+
+        setTop(new ToolBar(enabled, checkButton));
+        setCenter(split);
+    }
+
+    private static String kb(long bytes) {
+        if (bytes < 0) {
+            return "?";
+        }
+        return String.format("%,d", bytes / 1024);
+    }
+}
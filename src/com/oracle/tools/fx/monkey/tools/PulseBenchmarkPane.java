@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.ArrayDeque;
+import java.util.function.LongConsumer;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Window;
+import com.oracle.tools.fx.monkey.util.NamedValue;
+
+/**
+ * Base class for the benchmarks which drive a control in the current page, one step per pulse.
+ *
+ * The subclass plans a run by adding tasks, then calls {@link #run(Node)}.
+ * The timer performs the action of the next task once the previous one is complete;
+ * the action is followed by a layout pass, after which the task's {@code onFrame} is called with the time
+ * elapsed from the start of the action to the end of the layout pass.
+ * The run ends when all the tasks are done, when the Stop button is pressed, when the target node is removed
+ * from the scene, or when the window is closed; then {@link #onStop(boolean)} restores the state of the page.
+ *
+ * The subclass provides the toolbar, which usually contains the Start and Stop buttons and the {@link #status} label.
+ */
+public abstract class PulseBenchmarkPane extends BorderPane {
+    protected final Label status;
+    protected final TextArea results;
+    private final AnimationTimer timer;
+    private final Runnable pulseListener = this::handlePulse;
+    private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+    // the state of the current run
+    private Node target;
+    private Scene scene;
+    private Task current;
+    private long startTime;
+
+    /** the task action is followed by a layout pass, then onFrame (if not null) is called with the elapsed time */
+    private record Task(Runnable action, LongConsumer onFrame) { }
+
+    /** called at the end of the run: complete is false if the run has been stopped before all the tasks are done */
+    protected abstract void onStop(boolean complete);
+
+    protected PulseBenchmarkPane() {
+        status = new Label();
+
+        results = new TextArea();
+        results.setEditable(false);
+        results.setWrapText(false);
+        results.setStyle("-fx-font-family:monospace;");
+
+        setCenter(results);
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                step();
+            }
+        };
+
+        sceneProperty().
+            flatMap(Scene::windowProperty).
+            flatMap(Window::showingProperty).
+            orElse(Boolean.FALSE).
+            addListener((s, p, on) -> {
+                if (!on) {
+                    stop();
+                }
+            });
+    }
+
+    protected boolean isRunning() {
+        return (target != null);
+    }
+
+    protected void addTask(Runnable action) {
+        tasks.add(new Task(action, null));
+    }
+
+    protected void addTask(Runnable action, LongConsumer onFrame) {
+        tasks.add(new Task(action, onFrame));
+    }
+
+    protected boolean hasTasks() {
+        return !tasks.isEmpty();
+    }
+
+    /** starts performing the planned tasks; the run stops when the target node is removed from the scene */
+    protected void run(Node target) {
+        if (isRunning()) {
+            return;
+        }
+
+        this.target = target;
+        scene = target.getScene();
+        scene.addPostLayoutPulseListener(pulseListener);
+        timer.start();
+    }
+
+    private void step() {
+        if (current != null) {
+            // wait for the layout pass
+            return;
+        }
+
+        current = tasks.poll();
+        if (current == null) {
+            stop();
+            return;
+        }
+
+        if (target.getScene() == null) {
+            status.setText(target.getClass().getSimpleName() + " removed from the scene");
+            stop();
+            return;
+        }
+
+        startTime = System.nanoTime();
+        current.action().run();
+    }
+
+    private void handlePulse() {
+        if (current == null) {
+            return;
+        }
+
+        long time = System.nanoTime() - startTime;
+        if (current.onFrame() != null) {
+            current.onFrame().accept(time);
+        }
+        current = null;
+    }
+
+    protected void stop() {
+        if (!isRunning()) {
+            tasks.clear();
+            return;
+        }
+
+        timer.stop();
+        scene.removePostLayoutPulseListener(pulseListener);
+
+        boolean complete = tasks.isEmpty();
+        tasks.clear();
+        current = null;
+        target = null;
+        scene = null;
+
+        onStop(complete);
+        results.appendText(complete ? "\n" : "(stopped)\n\n");
+        status.setText(null);
+    }
+
+    /** returns the value of the option choice at the specified index, creating a new value for the supplier choices */
+    protected static Object valueAt(ComboBox<?> c, int ix) {
+        if ((ix >= 0) && (ix < c.getItems().size())) {
+            if (c.getItems().get(ix) instanceof NamedValue<?> v) {
+                return v.getValue();
+            }
+        }
+        return null;
+    }
+
+    /** requests layout of every node in the subtree, so the next layout pass lays out the whole subtree */
+    protected static void markDirty(Parent p) {
+        p.requestLayout();
+        for (Node ch: p.getChildrenUnmodifiable()) {
+            if (ch instanceof Parent cp) {
+                markDirty(cp);
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.ToolBar;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Scene Graph Statistics Inspector.
+ *
+ * The analysis of the current page is performed incrementally, a few milliseconds per frame,
+ * so it stays usable with large scene graphs.
+ *
+ * The per-pulse counters are collected before each layout pulse: the number of parents which
+ * need layout, and the number of nodes which need CSS to be applied.  The latter requires access to
+ * JavaFX internals: --add-opens javafx.graphics/javafx.scene=ALL-UNNAMED
+ * Counting walks the whole page, so it is limited the same way: a walk which exceeds the frame budget
+ * is abandoned (and not counted), and an expensive walk is performed only every few pulses.
+ * The time spent by the walks is shown next to the counters.
+ */
+public class SceneGraphStatsPane extends BorderPane {
+    private static final long FRAME_BUDGET_NS = 5_000_000L;
+    /** the per-pulse walk is sampled so its cost averages to at most this much per pulse */
+    private static final long PULSE_BUDGET_NS = 1_000_000L;
+    private static final int MAX_SKIP = 60;
+    private static final int TOP = 15;
+    private final Supplier<Node> pageSupplier;
+    private final TextArea report;
+    private final Label status;
+    private final Label pulseStatus;
+    private final CheckBox perPulse;
+    private final AnimationTimer scanner;
+    private final Timeline pulseTimer;
+    private final Runnable pulseListener = this::handlePulse;
+    private Scene pulseScene;
+    // scan state
+    private ArrayDeque<Frame> stack;
+    private Stats stats;
+    private long scanStart;
+    // pulse counters
+    private long pulses;
+    private long walks;
+    private long abandoned;
+    private long walkTime;
+    private long walkMax;
+    private int skip;
+    private int skipped;
+    private long layoutTotal;
+    private long cssTotal;
+    private int layoutMax;
+    private int cssMax;
+    private static Field cssFlagField;
+    private static boolean cssFlagInaccessible;
+
+    public SceneGraphStatsPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "SceneGraphStatsPane");
+        this.pageSupplier = pageSupplier;
+
+        report = new TextArea();
+        report.setEditable(false);
+        report.setWrapText(false);
+        report.setStyle("-fx-font-family:monospace;");
+
+        status = new Label();
+
+        pulseStatus = new Label();
+
+        perPulse = new CheckBox("Count Per Pulse");
+        FX.name(perPulse, "perPulse");
+        perPulse.selectedProperty().addListener((s, p, on) -> updatePulseListener());
+
+        Button refreshButton = FX.button("Refresh", this::refresh);
+
+        setTop(new ToolBar(refreshButton, status, perPulse, pulseStatus));
+        setCenter(report);
+
+        scanner = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                scan();
+            }
+        };
+
+        pulseTimer = new Timeline(new KeyFrame(Duration.millis(500), (ev) -> updatePulseStatus()));
+        pulseTimer.setCycleCount(Timeline.INDEFINITE);
+
+        sceneProperty().
+            flatMap(Scene::windowProperty).
+            flatMap(Window::showingProperty).
+            orElse(Boolean.FALSE).
+            addListener((s, p, on) -> {
+                if (on) {
+                    refresh();
+                } else {
+                    scanner.stop();
+                }
+                updatePulseListener();
+            });
+    }
+
+    private void refresh() {
+        Node root = pageSupplier.get();
+        if (root == null) {
+            report.setText(null);
+            return;
+        }
+
+        stats = new Stats(UserActivity.getPage());
+        stack = new ArrayDeque<>();
+        stack.push(new Frame(root, 0));
+        scanStart = System.nanoTime();
+        status.setText("Scanning...");
+        scanner.start();
+    }
+
+    private void scan() {
+        long start = System.nanoTime();
+        int n = 0;
+        while (!stack.isEmpty()) {
+            Frame f = stack.peek();
+            if (!f.visited) {
+                visit(f);
+            }
+
+            List<Node> children = (f.node instanceof Parent p) ? p.getChildrenUnmodifiable() : List.of();
+            if (f.next < children.size()) {
+                Node ch = children.get(f.next++);
+                stack.push(new Frame(ch, stack.size()));
+            } else {
+                stack.pop();
+                Frame parent = stack.peek();
+                if (parent != null) {
+                    parent.size += f.size;
+                }
+                if (f.node instanceof Control) {
+                    stats.addSubtree(f.node, f.size);
+                }
+            }
+
+            // check the time every so often
+            if (((++n) % 256) == 0) {
+                if ((System.nanoTime() - start) > FRAME_BUDGET_NS) {
+                    status.setText("Scanning... " + stats.total + " nodes");
+                    return;
+                }
+            }
+        }
+
+        scanner.stop();
+        long ms = (System.nanoTime() - scanStart) / 1_000_000L;
+        status.setText("Scanned in " + ms + " ms");
+        report.setText(stats.toString());
+    }
+
+    private void visit(Frame f) {
+        Node n = f.node;
+        f.visited = true;
+        f.size = 1;
+        stats.total++;
+        stats.maxDepth = Math.max(stats.maxDepth, f.depth);
+        stats.types.merge(n.getClass().getName(), 1, Integer::sum);
+
+        int sc = n.getStyleClass().size();
+        if (sc > 0) {
+            stats.styled++;
+            stats.styleClasses += sc;
+        }
+        String style = n.getStyle();
+        if ((style != null) && !style.isEmpty()) {
+            stats.inlineStyle++;
+        }
+        if (n.isCache()) {
+            stats.cached++;
+        }
+        if (!n.isManaged()) {
+            stats.unmanaged++;
+        }
+    }
+
+    private void updatePulseListener() {
+        boolean on = perPulse.isSelected() && (getScene() != null) && (getScene().getWindow() != null) && getScene().getWindow().isShowing();
+        Node root = pageSupplier.get();
+        Scene sc = (on && (root != null)) ? root.getScene() : null;
+        if (sc != pulseScene) {
+            if (pulseScene != null) {
+                pulseScene.removePreLayoutPulseListener(pulseListener);
+            }
+            pulseScene = sc;
+            if (pulseScene != null) {
+                pulseScene.addPreLayoutPulseListener(pulseListener);
+            }
+            pulses = 0;
+            walks = 0;
+            abandoned = 0;
+            walkTime = 0;
+            walkMax = 0;
+            skip = 0;
+            skipped = 0;
+            layoutTotal = 0;
+            cssTotal = 0;
+            layoutMax = 0;
+            cssMax = 0;
+        }
+
+        if (pulseScene == null) {
+            pulseTimer.stop();
+            pulseStatus.setText(null);
+        } else {
+            pulseTimer.play();
+        }
+    }
+
+    private void handlePulse() {
+        Node root = pageSupplier.get();
+        if (root == null) {
+            return;
+        }
+
+        if (skipped < skip) {
+            skipped++;
+            return;
+        }
+        skipped = 0;
+
+        long start = System.nanoTime();
+        int layout = 0;
+        int css = 0;
+        int n = 0;
+        boolean complete = true;
+        ArrayDeque<Node> q = new ArrayDeque<>();
+        q.push(root);
+        while (!q.isEmpty()) {
+            Node nd = q.pop();
+            if (needsCss(nd)) {
+                css++;
+            }
+            if (nd instanceof Parent p) {
+                if (p.isNeedsLayout()) {
+                    layout++;
+                }
+                for (Node ch: p.getChildrenUnmodifiable()) {
+                    q.push(ch);
+                }
+            }
+
+            // check the time every so often
+            if (((++n) % 256) == 0) {
+                if ((System.nanoTime() - start) > FRAME_BUDGET_NS) {
+                    complete = false;
+                    break;
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        walks++;
+        walkTime += elapsed;
+        walkMax = Math.max(walkMax, elapsed);
+        // an expensive walk is performed less often
+        skip = (int)Math.min(MAX_SKIP, elapsed / PULSE_BUDGET_NS);
+
+        if (!complete) {
+            abandoned++;
+            return;
+        }
+
+        if ((layout > 0) || (css > 0)) {
+            pulses++;
+            layoutTotal += layout;
+            cssTotal += css;
+            layoutMax = Math.max(layoutMax, layout);
+            cssMax = Math.max(cssMax, css);
+        }
+    }
+
+    private void updatePulseStatus() {
+        StringBuilder sb = new StringBuilder();
+        if (pulses == 0) {
+            sb.append("No dirty pulses");
+        } else {
+            sb.append("Dirty pulses: ").append(pulses);
+            sb.append("  Layout: avg ").append(layoutTotal / pulses).append(" max ").append(layoutMax);
+            sb.append("  CSS: ");
+            if (cssFlagInaccessible) {
+                sb.append("n/a (requires --add-opens)");
+            } else {
+                sb.append("avg ").append(cssTotal / pulses).append(" max ").append(cssMax);
+            }
+        }
+
+        if (walks > 0) {
+            sb.append(String.format(
+                "  Overhead: avg %.2f ms max %.2f ms",
+                walkTime / (walks * 1e6),
+                walkMax / 1e6
+            ));
+            if (skip > 0) {
+                sb.append(", 1 in ").append(skip + 1).append(" pulses");
+            }
+            if (abandoned > 0) {
+                sb.append(", ").append(abandoned).append(" over budget");
+            }
+        }
+        pulseStatus.setText(sb.toString());
+    }
+
+    private static boolean needsCss(Node n) {
+        if (cssFlagInaccessible) {
+            return false;
+        }
+
+        try {
+            if (cssFlagField == null) {
+                cssFlagField = Node.class.getDeclaredField("cssFlag");
+                cssFlagField.setAccessible(true);
+            }
+            Object v = cssFlagField.get(n);
+            // CssFlags: CLEAN, DIRTY_BRANCH, UPDATE, REAPPLY
+            String s = String.valueOf(v);
+            return "UPDATE".equals(s) || "REAPPLY".equals(s);
+        } catch (RuntimeException | ReflectiveOperationException e) {
+            // InaccessibleObjectException
+            cssFlagInaccessible = true;
+            return false;
+        }
+    }
+
+    private static class Frame {
+        public final Node node;
+        public final int depth;
+        public boolean visited;
+        public int next;
+        public int size;
+
+        public Frame(Node node, int depth) {
+            this.node = node;
+            this.depth = depth;
+        }
+    }
+
+    private static record Subtree(String name, int size) { }
+
+    private static class Stats {
+        public final String page;
+        public int total;
+        public int maxDepth;
+        public int styled;
+        public int styleClasses;
+        public int inlineStyle;
+        public int cached;
+        public int unmanaged;
+        public final HashMap<String, Integer> types = new HashMap<>();
+        public final ArrayList<Subtree> subtrees = new ArrayList<>();
+
+        public Stats(String page) {
+            this.page = page;
+        }
+
+        public void addSubtree(Node n, int size) {
+            subtrees.add(new Subtree(UserActivity.describe(n) + " (" + n.getClass().getSimpleName() + ")", size));
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Page: ").append(page).append('\n');
+            sb.append("Total nodes: ").append(total).append('\n');
+            sb.append("Max depth: ").append(maxDepth).append('\n');
+            sb.append("Nodes with style classes: ").append(styled);
+            sb.append(" (").append(styleClasses).append(" style classes)\n");
+            sb.append("Nodes with inline style: ").append(inlineStyle).append('\n');
+            sb.append("Nodes with cache enabled: ").append(cached).append('\n');
+            sb.append("Unmanaged nodes: ").append(unmanaged).append('\n');
+
+            sb.append("\nNodes per type:\n");
+            ArrayList<Map.Entry<String, Integer>> ts = new ArrayList<>(types.entrySet());
+            ts.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+            for (Map.Entry<String, Integer> en: ts) {
+                sb.append(String.format("%8d  %s\n", en.getValue(), en.getKey()));
+            }
+
+            sb.append("\nBiggest subtrees (rooted at controls):\n");
+            subtrees.sort((a, b) -> Integer.compare(b.size(), a.size()));
+            int sz = Math.min(TOP, subtrees.size());
+            for (int i = 0; i < sz; i++) {
+                Subtree s = subtrees.get(i);
+                sb.append(String.format("%8d  %s\n", s.size(), s.name()));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+import javafx.beans.property.DoubleProperty;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableView;
+import javafx.scene.control.ToolBar;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.TreeView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.Region;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * VirtualFlow Scroll Benchmark.
+ *
+ * Drives the VirtualFlow of the ListView, TableView, TreeView, or TreeTableView in the current page
+ * through the same scripted scenarios (smooth pixel scroll, page down, random jumps, jumps to the end),
+ * for each of the page's item choices, with and without the fixed cell size.
+ * The ListView is also run in the horizontal orientation, reported separately from the vertical one.
+ * One scroll step is performed per pulse; the frame time is measured from the scroll step to
+ * the end of the layout pass.
+ *
+ * The cells are counted by observing the cells in the VirtualFlow: a cell is "created" when first seen,
+ * and "reused" each time an existing cell changes its index (which is when {@code updateItem()} gets called).
+ */
+public class ScrollBenchmarkPane extends PulseBenchmarkPane {
+    private static final double FIXED_CELL_SIZE = 24;
+    private static final double FIXED_CELL_WIDTH = 100;
+    private static final int SMOOTH_STEPS = 200;
+    private static final int PAGE_STEPS = 50;
+    private static final int JUMP_STEPS = 100;
+    private static final int END_STEPS = 20;
+    private static final Object LISTENER = new Object();
+    /** the number of index changes in the cells seen so far */
+    private static long indexChanges;
+    private final Supplier<Node> pageSupplier;
+    // the state of the current run
+    private VirtualFlow<?> flow;
+    private Control control;
+    private ComboBox<?> itemsSelector;
+    private int originalItems;
+    private double originalFixedCellSize;
+    private Orientation originalOrientation;
+    private final ArrayList<Result> done = new ArrayList<>();
+    private final WeakHashMap<IndexedCell<?>, Boolean> seen = new WeakHashMap<>();
+    private final Random random = new Random();
+    private long startChanges;
+
+    private static class Result {
+        public final String items;
+        public final boolean fixed;
+        public final Orientation orientation;
+        public final String pattern;
+        public long[] frames = new long[64];
+        public int count;
+        public long created;
+        public long reused;
+
+        public Result(String items, boolean fixed, Orientation orientation, String pattern) {
+            this.items = items;
+            this.fixed = fixed;
+            this.orientation = orientation;
+            this.pattern = pattern;
+        }
+
+        public void add(long time, int newCells, long changes) {
+            if (count == frames.length) {
+                frames = Arrays.copyOf(frames, count * 2);
+            }
+            frames[count++] = time;
+            created += newCells;
+            reused += changes;
+        }
+    }
+
+    public ScrollBenchmarkPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "ScrollBenchmarkPane");
+        this.pageSupplier = pageSupplier;
+
+        Button startButton = FX.button("Start", this::start);
+        Button stopButton = FX.button("Stop", this::stop);
+
+        setTop(new ToolBar(startButton, stopButton, status));
+    }
+
+    private void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        Node page = pageSupplier.get();
+        Node content = (page == null) ? null : page.lookup(".test-content");
+        VirtualFlow<?> f = FX.find(content, VirtualFlow.class);
+        Control c = findControl(f);
+        if (fixedCellSize(c) == null) {
+            status.setText("No ListView, TableView, TreeView, or TreeTableView in the current page");
+            return;
+        }
+
+        // the option which selects the items (or the root item) in the page
+        ComboBox<?> sel = FX.findComboBox(page, "items", "root");
+        if (sel == null) {
+            status.setText("No items option in the current page");
+            return;
+        }
+
+        flow = f;
+        control = c;
+        itemsSelector = sel;
+        originalItems = sel.getSelectionModel().getSelectedIndex();
+        originalFixedCellSize = fixedCellSize(c).get();
+        originalOrientation = (c instanceof ListView<?> v) ? v.getOrientation() : null;
+        seen.clear();
+        done.clear();
+
+        Orientation[] orientations = (c instanceof ListView) ?
+            new Orientation[] { Orientation.VERTICAL, Orientation.HORIZONTAL } :
+            new Orientation[] { Orientation.VERTICAL };
+
+        for (int i = 0; i < sel.getItems().size(); i++) {
+            String name = String.valueOf(sel.getItems().get(i));
+            if (name.startsWith("<")) {
+                continue;
+            }
+            for (Orientation orientation: orientations) {
+                for (boolean fixed: new boolean[] { false, true }) {
+                    plan(i, name, fixed, orientation);
+                }
+            }
+        }
+
+        results.appendText(UserActivity.getPage() + " (" + control.getClass().getSimpleName() + ")\n");
+        results.appendText(String.format(
+            "%-24s %-6s %5s  %-12s %6s %8s %8s %8s %8s %8s %10s\n",
+            "items", "orient", "fixed", "pattern", "frames", "p50 ms", "p90 ms", "max ms", "created", "reused", "upd/frame"
+        ));
+
+        run(f);
+    }
+
+    private void plan(int itemsIndex, String items, boolean fixed, Orientation orientation) {
+        boolean horizontal = (orientation == Orientation.HORIZONTAL);
+        addTask(() -> {
+            itemsSelector.getSelectionModel().select(itemsIndex);
+            if (control instanceof ListView<?> v) {
+                v.setOrientation(orientation);
+            }
+            fixedCellSize(control).set(fixed ? (horizontal ? FIXED_CELL_WIDTH : FIXED_CELL_SIZE) : Region.USE_COMPUTED_SIZE);
+            expandRoot(control);
+        }, (t) -> scanCells(flow));
+
+        pattern(items, fixed, orientation, "Smooth", SMOOTH_STEPS, () -> {
+            flow.scrollPixels(10);
+        });
+        pattern(items, fixed, orientation, "Page Down", PAGE_STEPS, () -> {
+            flow.scrollPixels(flow.isVertical() ? flow.getHeight() : flow.getWidth());
+        });
+        pattern(items, fixed, orientation, "Random Jump", JUMP_STEPS, () -> {
+            int sz = flow.getCellCount();
+            if (sz > 0) {
+                flow.scrollTo(random.nextInt(sz));
+            }
+        });
+        pattern(items, fixed, orientation, "End / Top", END_STEPS, () -> {
+            int sz = flow.getCellCount();
+            if (sz > 0) {
+                boolean atStart = flow.getPosition() < 0.5;
+                flow.scrollTo(atStart ? sz - 1 : 0);
+            }
+        });
+    }
+
+    private void pattern(String items, boolean fixed, Orientation orientation, String name, int steps, Runnable action) {
+        addTask(() -> {
+            random.setSeed(1);
+            flow.scrollTo(0);
+        }, (t) -> scanCells(flow));
+
+        Result r = new Result(items, fixed, orientation, name);
+        for (int i = 0; i < steps; i++) {
+            addTask(() -> {
+                startChanges = indexChanges;
+                action.run();
+            }, (t) -> record(r, t));
+        }
+    }
+
+    private void record(Result r, long time) {
+        long changes = indexChanges - startChanges;
+        int created = scanCells(flow);
+
+        r.add(time, created, changes);
+        if (r.count == 1) {
+            String orientation = (r.orientation == Orientation.HORIZONTAL) ? ", horizontal" : "";
+            status.setText(r.items + orientation + (r.fixed ? ", fixed, " : ", ") + r.pattern);
+        }
+        if (!done.contains(r)) {
+            done.add(r);
+        }
+    }
+
+    @Override
+    protected void onStop(boolean complete) {
+        for (Result r: done) {
+            results.appendText(format(r));
+        }
+
+        itemsSelector.getSelectionModel().select(originalItems);
+        fixedCellSize(control).set(originalFixedCellSize);
+        if (control instanceof ListView<?> v) {
+            v.setOrientation(originalOrientation);
+        }
+
+        flow = null;
+        control = null;
+        itemsSelector = null;
+        done.clear();
+        seen.clear();
+    }
+
+    /** returns the number of cells not seen before */
+    private int scanCells(Node n) {
+        if (n instanceof IndexedCell<?> c) {
+            if (seen.put(c, Boolean.TRUE) == null) {
+                if (c.getProperties().put(LISTENER, Boolean.TRUE) == null) {
+                    c.indexProperty().addListener((s, p, v) -> indexChanges++);
+                }
+                return 1;
+            }
+            return 0;
+        }
+
+        int count = 0;
+        if (n instanceof Parent p) {
+            for (Node ch: p.getChildrenUnmodifiable()) {
+                count += scanCells(ch);
+            }
+        }
+        return count;
+    }
+
+    private static String format(Result r) {
+        int n = r.count;
+        long[] ts = Arrays.copyOf(r.frames, n);
+        Arrays.sort(ts);
+        String items = (r.items.length() > 24) ? r.items.substring(0, 24) : r.items;
+        return String.format(
+            "%-24s %-6s %5s  %-12s %6d %8.2f %8.2f %8.2f %8d %8d %10.1f\n",
+            items,
+            (r.orientation == Orientation.HORIZONTAL) ? "horiz" : "vert",
+            r.fixed ? "yes" : "no",
+            r.pattern,
+            n,
+            ts[n / 2] / 1e6,
+            ts[(int)(n * 0.9)] / 1e6,
+            ts[n - 1] / 1e6,
+            r.created,
+            r.reused,
+            (r.created + r.reused) / (double)n
+        );
+    }
+
+    private static void expandRoot(Control c) {
+        TreeItem<?> root = null;
+        if (c instanceof TreeView<?> t) {
+            root = t.getRoot();
+        } else if (c instanceof TreeTableView<?> t) {
+            root = t.getRoot();
+        }
+
+        if (root != null) {
+            root.setExpanded(true);
+        }
+    }
+
+    private static DoubleProperty fixedCellSize(Control c) {
+        if (c instanceof ListView<?> v) {
+            return v.fixedCellSizeProperty();
+        } else if (c instanceof TableView<?> v) {
+            return v.fixedCellSizeProperty();
+        } else if (c instanceof TreeView<?> v) {
+            return v.fixedCellSizeProperty();
+        } else if (c instanceof TreeTableView<?> v) {
+            return v.fixedCellSizeProperty();
+        }
+        return null;
+    }
+
+    private static Control findControl(Node n) {
+        for (; n != null; n = n.getParent()) {
+            if (n instanceof Control c) {
+                return c;
+            }
+        }
+        return null;
+    }
+}
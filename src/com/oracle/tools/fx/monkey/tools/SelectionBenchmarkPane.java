@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import javafx.animation.AnimationTimer;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MultipleSelectionModel;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.ToolBar;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Window;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.RunLengthSelectionModel;
+import com.oracle.tools.fx.monkey.util.RunLengthTableSelectionModel;
+import com.oracle.tools.fx.monkey.util.RunLengthTreeTableSelectionModel;
+
+/**
+ * Selection Model Benchmark.
+ *
+ * Compares the default selection models of ListView, TableView, and TreeTableView with the
+ * run-length encoded models on 1M rows: select all, shift-range select (from an anchor to a row
+ * far below), and invert the selection.  The default models have no invert operation, so it is
+ * performed the way an application would: by computing the complement and calling selectIndices().
+ *
+ * The controls are not shown, so the numbers reflect the cost of the selection models
+ * and their change notifications, without the cell updates.
+ * One measurement is taken per pulse to keep the UI responsive.
+ */
+public class SelectionBenchmarkPane extends BorderPane {
+    private static final int ROWS = 1_000_000;
+    private static final int ANCHOR = 1_000;
+    private static final int TARGET = 900_000;
+    private static final int REPEAT = 3;
+    private final Label status;
+    private final TextArea results;
+    private final AnimationTimer timer;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final ArrayList<Subject> subjects = new ArrayList<>();
+    private boolean running;
+
+    private record Subject(String control, String model, MultipleSelectionModel<?> sm, Runnable invert, int[] changes) { }
+
+    public SelectionBenchmarkPane() {
+        FX.name(this, "SelectionBenchmarkPane");
+
+        Button startButton = FX.button("Start", this::start);
+        Button stopButton = FX.button("Stop", this::stop);
+
+        status = new Label();
+
+        results = new TextArea();
+        results.setEditable(false);
+        results.setWrapText(false);
+        results.setStyle("-fx-font-family:monospace;");
+
+        setTop(new ToolBar(startButton, stopButton, status));
+        setCenter(results);
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                step();
+            }
+        };
+
+        sceneProperty().
+            flatMap(Scene::windowProperty).
+            flatMap(Window::showingProperty).
+            orElse(Boolean.FALSE).
+            addListener((s, p, on) -> {
+                if (!on) {
+                    stop();
+                }
+            });
+    }
+
+    private void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        tasks.add(this::setup);
+        tasks.add(() -> {
+            results.appendText(String.format(
+                "%d rows\n%-14s %-11s %-14s %10s %10s %8s %10s\n",
+                ROWS, "control", "model", "operation", "best ms", "worst ms", "changes", "selected"
+            ));
+            for (Subject s: subjects) {
+                plan(s);
+            }
+            tasks.add(() -> {
+                results.appendText("\n");
+                stop();
+            });
+        });
+        status.setText("Running...");
+        timer.start();
+    }
+
+    private void stop() {
+        timer.stop();
+        tasks.clear();
+        subjects.clear();
+        if (running) {
+            running = false;
+            status.setText("Done.");
+        }
+    }
+
+    private void step() {
+        Runnable r = tasks.poll();
+        if (r == null) {
+            stop();
+            return;
+        }
+
+        try {
+            r.run();
+        } catch (Throwable e) {
+            e.printStackTrace();
+            results.appendText("ERROR: " + e + "\n");
+            stop();
+        }
+    }
+
+    private void setup() {
+        ObservableList<Integer> items = FXCollections.observableArrayList();
+        for (int i = 0; i < ROWS; i++) {
+            items.add(i);
+        }
+
+        ListView<Integer> list = new ListView<>(items);
+        add("ListView", "default", list.getSelectionModel(), null);
+        ListView<Integer> list2 = new ListView<>(items);
+        RunLengthSelectionModel<Integer> listModel = new RunLengthSelectionModel<>(list2);
+        list2.setSelectionModel(listModel);
+        add("ListView", "run-length", listModel, listModel::invert);
+
+        TableView<Integer> table = new TableView<>(items);
+        add("TableView", "default", table.getSelectionModel(), null);
+        TableView<Integer> table2 = new TableView<>(items);
+        RunLengthTableSelectionModel<Integer> tableModel = new RunLengthTableSelectionModel<>(table2);
+        table2.setSelectionModel(tableModel);
+        add("TableView", "run-length", tableModel, tableModel::invert);
+
+        TreeTableView<Integer> tree = new TreeTableView<>(createRoot());
+        tree.setShowRoot(false);
+        add("TreeTableView", "default", tree.getSelectionModel(), null);
+        TreeTableView<Integer> tree2 = new TreeTableView<>(createRoot());
+        tree2.setShowRoot(false);
+        RunLengthTreeTableSelectionModel<Integer> treeModel = new RunLengthTreeTableSelectionModel<>(tree2);
+        tree2.setSelectionModel(treeModel);
+        add("TreeTableView", "run-length", treeModel, treeModel::invert);
+    }
+
+    private static TreeItem<Integer> createRoot() {
+        TreeItem<Integer> root = new TreeItem<>(-1);
+        ArrayList<TreeItem<Integer>> children = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            children.add(new TreeItem<>(i));
+        }
+        root.getChildren().setAll(children);
+        root.setExpanded(true);
+        return root;
+    }
+
+    private void add(String control, String model, MultipleSelectionModel<?> sm, Runnable invert) {
+        sm.setSelectionMode(SelectionMode.MULTIPLE);
+        int[] changes = new int[1];
+        sm.getSelectedIndices().addListener((ListChangeListener<Integer>)(ch) -> changes[0]++);
+        Runnable inv = (invert == null) ? () -> invertDefault(sm) : invert;
+        subjects.add(new Subject(control, model, sm, inv, changes));
+    }
+
+    private void plan(Subject s) {
+        measure(s, "Select All", () -> s.sm().clearSelection(), () -> s.sm().selectAll());
+        measure(s, "Shift-Range", () -> s.sm().clearAndSelect(ANCHOR), () -> s.sm().selectRange(ANCHOR, TARGET + 1));
+        measure(s, "Invert", () -> {
+            s.sm().clearSelection();
+            s.sm().selectRange(ROWS / 4, 3 * ROWS / 4);
+        }, s.invert());
+        tasks.add(() -> s.sm().clearSelection());
+    }
+
+    private void measure(Subject s, String operation, Runnable prepare, Runnable action) {
+        long[] times = new long[REPEAT];
+        for (int i = 0; i < REPEAT; i++) {
+            int ix = i;
+            tasks.add(prepare);
+            tasks.add(() -> {
+                status.setText(s.control() + " " + s.model() + " " + operation);
+                s.changes()[0] = 0;
+                long start = System.nanoTime();
+                action.run();
+                times[ix] = System.nanoTime() - start;
+            });
+        }
+        tasks.add(() -> {
+            long[] ts = times.clone();
+            Arrays.sort(ts);
+            results.appendText(String.format(
+                "%-14s %-11s %-14s %10.2f %10.2f %8d %10d\n",
+                s.control(), s.model(), operation, ts[0] / 1_000_000.0, ts[REPEAT - 1] / 1_000_000.0,
+                s.changes()[0], s.sm().getSelectedIndices().size()
+            ));
+        });
+    }
+
+    /** inverts the selection using only the public MultipleSelectionModel API */
+    private static void invertDefault(MultipleSelectionModel<?> sm) {
+        BitSet selected = new BitSet(ROWS);
+        for (Integer ix: sm.getSelectedIndices()) {
+            selected.set(ix);
+        }
+
+        int[] rest = new int[ROWS - selected.cardinality()];
+        int n = 0;
+        for (int ix = selected.nextClearBit(0); ix < ROWS; ix = selected.nextClearBit(ix + 1)) {
+            rest[n++] = ix;
+        }
+
+        sm.clearSelection();
+        if (n > 0) {
+            sm.selectIndices(rest[0], Arrays.copyOfRange(rest, 1, n));
+        }
+    }
+}
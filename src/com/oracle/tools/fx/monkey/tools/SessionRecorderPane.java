@@ -0,0 +1,451 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.ToolBar;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+import com.oracle.tools.fx.monkey.settings.FxSettingsSchema;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.ObjectSelector;
+import com.oracle.tools.fx.monkey.util.SessionRecorder;
+import com.oracle.tools.fx.monkey.util.SessionRecorder.Step;
+import com.oracle.tools.fx.monkey.util.SyntheticEvents;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Session Recorder.
+ *
+ * Records the user interaction with the current page (see {@link SessionRecorder}), saves it to
+ * or loads it from a file, and replays it either with the original timing or at the maximum speed,
+ * one step per pulse, skipping the idle time.  Reports the total replay time and the latency
+ * of each step, measured from the dispatch of the event to the end of the layout pass.
+ */
+public class SessionRecorderPane extends BorderPane {
+    private static final int MAX_SLOWEST = 10;
+    private final Supplier<Node> pageSupplier;
+    private final ObjectSelector<Boolean> speed;
+    private final Label status;
+    private final TextArea results;
+    private final Runnable pulseListener = this::handlePulse;
+    private final AnimationTimer timer;
+    private List<Step> session;
+    // replay state
+    private final HashMap<String, Node> resolved = new HashMap<>();
+    private boolean realTime;
+    private Scene scene;
+    private Node content;
+    private Node pressTarget;
+    private long startTime;
+    private int index;
+    private int pendingIndex;
+    private long[] firedTimes;
+    private long[] latencies;
+    private int unresolved;
+    private int exceptions;
+
+    public SessionRecorderPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "SessionRecorderPane");
+        this.pageSupplier = pageSupplier;
+
+        speed = new ObjectSelector<>("speed", (v) -> { });
+        speed.addChoice("1x", Boolean.TRUE);
+        speed.addChoice("Max", Boolean.FALSE);
+        speed.select(0);
+
+        Button recordButton = FX.button("Record", this::record);
+        Button stopButton = FX.button("Stop", this::stop);
+        Button replayButton = FX.button("Replay", this::replay);
+        Button saveButton = FX.button("Save...", this::save);
+        Button openButton = FX.button("Open...", this::open);
+
+        status = new Label();
+
+        results = new TextArea();
+        results.setEditable(false);
+        results.setWrapText(false);
+        results.setStyle("-fx-font-family:monospace;");
+
+        ToolBar tb = new ToolBar(
+            recordButton,
+            stopButton,
+            new Label("Speed:"), speed,
+            replayButton,
+            saveButton,
+            openButton,
+            status
+        );
+
+        setTop(tb);
+        setCenter(results);
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                step();
+            }
+        };
+
+        sceneProperty().
+            flatMap(Scene::windowProperty).
+            flatMap(Window::showingProperty).
+            orElse(Boolean.FALSE).
+            addListener((s, p, on) -> {
+                if (!on) {
+                    stop();
+                }
+            });
+    }
+
+    private Node findContent() {
+        Node page = pageSupplier.get();
+        Node n = (page == null) ? null : page.lookup(".test-content");
+        if ((n == null) || (n.getScene() == null)) {
+            status.setText("No test content in the current page");
+            return null;
+        }
+        return n;
+    }
+
+    private void record() {
+        stop();
+
+        Node n = findContent();
+        if (n != null) {
+            SessionRecorder.start(n);
+            status.setText("Recording " + UserActivity.getPage() + "...");
+        }
+    }
+
+    private void stop() {
+        if (SessionRecorder.isRecording()) {
+            session = SessionRecorder.stop();
+            status.setText(session.size() + " steps recorded");
+        } else if (scene != null) {
+            finishReplay(true);
+        }
+    }
+
+    private void save() {
+        if (session == null) {
+            status.setText("Nothing to save");
+            return;
+        }
+
+        FileChooser ch = new FileChooser();
+        ch.setTitle("Save Session");
+        ch.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("Session Files", "*.session"),
+            new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+        File f = ch.showSaveDialog(FX.getParentWindow(this));
+        if (f != null) {
+            try {
+                SessionRecorder.save(session, f);
+                status.setText("Saved " + session.size() + " steps");
+            } catch (Exception e) {
+                e.printStackTrace();
+                status.setText(e.toString());
+            }
+        }
+    }
+
+    private void open() {
+        FileChooser ch = new FileChooser();
+        ch.setTitle("Open Session");
+        ch.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("Session Files", "*.session"),
+            new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+        File f = ch.showOpenDialog(FX.getParentWindow(this));
+        if (f != null) {
+            try {
+                session = SessionRecorder.load(f);
+                status.setText("Loaded " + session.size() + " steps");
+            } catch (Exception e) {
+                e.printStackTrace();
+                status.setText(e.toString());
+            }
+        }
+    }
+
+    private void replay() {
+        stop();
+
+        if ((session == null) || session.isEmpty()) {
+            status.setText("Nothing to replay");
+            return;
+        }
+
+        content = findContent();
+        if (content == null) {
+            return;
+        }
+
+        scene = content.getScene();
+        realTime = speed.getSelectedValue();
+        resolved.clear();
+        pressTarget = null;
+        index = 0;
+        pendingIndex = 0;
+        firedTimes = new long[session.size()];
+        latencies = new long[session.size()];
+        Arrays.fill(latencies, -1);
+        unresolved = 0;
+        exceptions = 0;
+        status.setText("Replaying...");
+
+        scene.addPostLayoutPulseListener(pulseListener);
+        startTime = System.nanoTime();
+        timer.start();
+    }
+
+    /** fires the steps which are due, called once per pulse */
+    private void step() {
+        if (pendingIndex < index) {
+            // wait until the previous steps are laid out
+            return;
+        }
+
+        while (index < session.size()) {
+            long now = System.nanoTime();
+            Step s = session.get(index);
+            if (realTime && (s.time() > (now - startTime) / 1_000)) {
+                break;
+            }
+
+            firedTimes[index++] = now;
+            try {
+                if (!execute(s)) {
+                    unresolved++;
+                }
+            } catch (Throwable e) {
+                e.printStackTrace();
+                exceptions++;
+            }
+
+            if (!realTime) {
+                // one step per pulse
+                break;
+            }
+        }
+    }
+
+    private void handlePulse() {
+        if (pendingIndex == index) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int i = pendingIndex; i < index; i++) {
+            latencies[i] = now - firedTimes[i];
+        }
+        pendingIndex = index;
+
+        if (index >= session.size()) {
+            finishReplay(false);
+        } else {
+            status.setText("Replaying " + index + " / " + session.size());
+        }
+    }
+
+    private void finishReplay(boolean aborted) {
+        timer.stop();
+        scene.removePostLayoutPulseListener(pulseListener);
+        long elapsed = System.nanoTime() - startTime;
+
+        results.appendText(report(elapsed, aborted));
+        status.setText(aborted ? "Replay stopped" : "Replay finished");
+        scene = null;
+        content = null;
+        pressTarget = null;
+        resolved.clear();
+        firedTimes = null;
+        latencies = null;
+    }
+
+    private Node resolve(String path) {
+        Node n = resolved.get(path);
+        if ((n == null) || (n.getScene() == null)) {
+            n = FxSettingsSchema.findByName(path);
+            if (n == null) {
+                return null;
+            }
+            resolved.put(path, n);
+        }
+        return n;
+    }
+
+    /** returns false if the step target cannot be found */
+    private boolean execute(Step s) {
+        Node anchor = resolve(s.path());
+        if (anchor == null) {
+            return false;
+        }
+
+        switch (s.type()) {
+        case SessionRecorder.OPTION:
+            if (anchor instanceof ComboBox<?> c) {
+                c.getSelectionModel().select(Integer.parseInt(s.arg()));
+                return true;
+            }
+            return false;
+        case SessionRecorder.BOOLEAN_OPTION:
+            if (anchor instanceof CheckBox c) {
+                c.setSelected(Boolean.parseBoolean(s.arg()));
+                return true;
+            }
+            return false;
+        case SessionRecorder.KEY_PRESSED:
+            SyntheticEvents.key(keyTarget(anchor), KeyEvent.KEY_PRESSED, KeyEvent.CHAR_UNDEFINED, KeyCode.valueOf(s.arg()));
+            return true;
+        case SessionRecorder.KEY_TYPED:
+            SyntheticEvents.key(keyTarget(anchor), KeyEvent.KEY_TYPED, s.arg(), KeyCode.UNDEFINED);
+            return true;
+        case SessionRecorder.KEY_RELEASED:
+            SyntheticEvents.key(keyTarget(anchor), KeyEvent.KEY_RELEASED, KeyEvent.CHAR_UNDEFINED, KeyCode.valueOf(s.arg()));
+            return true;
+        }
+
+        Point2D p = anchor.localToScene(s.x(), s.y());
+        double x = p.getX();
+        double y = p.getY();
+
+        if (s.type() == SessionRecorder.SCROLL) {
+            String[] ss = s.arg().split(" ");
+            Node t = SyntheticEvents.pick(anchor, x, y);
+            SyntheticEvents.scroll(t == null ? anchor : t, x, y, Double.parseDouble(ss[0]), Double.parseDouble(ss[1]));
+            return true;
+        }
+
+        String[] ss = s.arg().split(" ");
+        MouseButton button = MouseButton.valueOf(ss[0]);
+        int clicks = Integer.parseInt(ss[1]);
+        switch (s.type()) {
+        case SessionRecorder.MOUSE_PRESSED:
+            Node t = SyntheticEvents.pick(anchor, x, y);
+            pressTarget = (t == null) ? anchor : t;
+            SyntheticEvents.mouse(pressTarget, MouseEvent.MOUSE_PRESSED, x, y, button, clicks, true);
+            return true;
+        case SessionRecorder.MOUSE_DRAGGED:
+            SyntheticEvents.mouse(mouseTarget(anchor), MouseEvent.MOUSE_DRAGGED, x, y, button, clicks, true);
+            return true;
+        case SessionRecorder.MOUSE_RELEASED:
+            SyntheticEvents.mouse(mouseTarget(anchor), MouseEvent.MOUSE_RELEASED, x, y, button, clicks, false);
+            return true;
+        case SessionRecorder.MOUSE_CLICKED:
+            SyntheticEvents.mouse(mouseTarget(anchor), MouseEvent.MOUSE_CLICKED, x, y, button, clicks, false);
+            pressTarget = null;
+            return true;
+        }
+        return false;
+    }
+
+    /** the mouse events following a press are delivered to the node which received the press */
+    private Node mouseTarget(Node anchor) {
+        if ((pressTarget != null) && (pressTarget.getScene() != null)) {
+            return pressTarget;
+        }
+        return anchor;
+    }
+
+    private Node keyTarget(Node anchor) {
+        for (Node n = scene.getFocusOwner(); n != null; n = n.getParent()) {
+            if (n == content) {
+                return scene.getFocusOwner();
+            }
+        }
+        return anchor;
+    }
+
+    private String report(long elapsed, boolean aborted) {
+        int count = 0;
+        for (long v: latencies) {
+            if (v >= 0) {
+                count++;
+            }
+        }
+
+        Step last = session.get(session.size() - 1);
+        StringBuilder sb = new StringBuilder();
+        sb.append(UserActivity.getPage()).append(": ").append(realTime ? "1x" : "max speed");
+        sb.append(aborted ? " (stopped)" : "").append('\n');
+        sb.append(String.format(
+            "  %d of %d steps in %.2f s (recorded %.2f s), unresolved=%d, exceptions=%d\n",
+            count, session.size(), elapsed / 1e9, last.time() / 1e6, unresolved, exceptions
+        ));
+
+        if (count > 0) {
+            long[] ls = new long[count];
+            Integer[] ixs = new Integer[count];
+            int j = 0;
+            for (int i = 0; i < latencies.length; i++) {
+                if (latencies[i] >= 0) {
+                    ls[j] = latencies[i];
+                    ixs[j] = i;
+                    j++;
+                }
+            }
+
+            long[] lats = latencies;
+            Arrays.sort(ls);
+            sb.append(String.format(
+                "  step latency (ms): p50=%.2f p90=%.2f p99=%.2f max=%.2f\n",
+                ls[count / 2] / 1e6,
+                ls[(int)(count * 0.9)] / 1e6,
+                ls[(int)(count * 0.99)] / 1e6,
+                ls[count - 1] / 1e6
+            ));
+
+            Arrays.sort(ixs, (a, b) -> Long.compare(lats[b], lats[a]));
+            sb.append("  slowest steps:\n");
+            for (int i = 0; i < Math.min(MAX_SLOWEST, count); i++) {
+                int ix = ixs[i];
+                sb.append(String.format("%10.2f ms  #%d %s\n", lats[ix] / 1e6, ix, session.get(ix)));
+            }
+        }
+        sb.append('\n');
+        return sb.toString();
+    }
+}
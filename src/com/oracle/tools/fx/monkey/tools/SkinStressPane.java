@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.Label;
+import javafx.scene.control.Skin;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.ToolBar;
+import javafx.scene.layout.BorderPane;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.HasSkinnable;
+import com.oracle.tools.fx.monkey.util.ObjectSelector;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Skin Swap Stress Test.
+ *
+ * Alternates {@link HasSkinnable#newSkin()} and {@link HasSkinnable#nullSkin()} on the current page,
+ * measuring the time of each swap, the number of listeners left on the control properties,
+ * and whether the old skins get collected.
+ *
+ * Counting the listeners requires access to JavaFX internals, for example:
+ * --add-opens javafx.base/javafx.beans.property=ALL-UNNAMED --add-opens javafx.base/com.sun.javafx.binding=ALL-UNNAMED
+ */
+public class SkinStressPane extends BorderPane {
+    private static final long FRAME_BUDGET_NS = 10_000_000L;
+    private final Supplier<Node> pageSupplier;
+    private final ObjectSelector<Integer> iterations;
+    private final CheckBox layout;
+    private final Label status;
+    private final TextArea results;
+    private final AnimationTimer timer;
+    // the state of the current run
+    private HasSkinnable page;
+    private Control control;
+    private String pageName;
+    private int total;
+    private int done;
+    private long[] newTimes;
+    private long[] nullTimes;
+    private ArrayList<WeakReference<Skin<?>>> skins;
+    private int listenersBefore;
+
+    public SkinStressPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "SkinStressPane");
+        this.pageSupplier = pageSupplier;
+
+        iterations = new ObjectSelector<>("iterations", (v) -> { });
+        iterations.addChoice("100", 100);
+        iterations.addChoice("1,000", 1_000);
+        iterations.addChoice("10,000", 10_000);
+        iterations.select(1);
+
+        layout = new CheckBox("CSS + Layout After New Skin");
+        FX.name(layout, "layout");
+
+        Button startButton = FX.button("Start", this::start);
+        Button stopButton = FX.button("Stop", this::finish);
+
+        status = new Label();
+
+        results = new TextArea();
+        results.setEditable(false);
+        results.setWrapText(false);
+        results.setStyle("-fx-font-family:monospace;");
+
+        setTop(new ToolBar(new Label("Swaps:"), iterations, layout, startButton, stopButton, status));
+        setCenter(results);
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                step();
+            }
+        };
+    }
+
+    private void start() {
+        if (control != null) {
+            return;
+        }
+
+        Node n = pageSupplier.get();
+        if (!(n instanceof HasSkinnable s)) {
+            status.setText("The current page does not support skin swapping");
+            return;
+        }
+
+        Control c = findControl(n);
+        if (c == null) {
+            status.setText("No control found in the current page");
+            return;
+        }
+
+        Integer count = iterations.getSelectedValue();
+        page = s;
+        control = c;
+        pageName = UserActivity.getPage();
+        total = 2 * (count == null ? 1_000 : count);
+        done = 0;
+        newTimes = new long[total / 2];
+        nullTimes = new long[total / 2];
+        skins = new ArrayList<>(total / 2);
+        listenersBefore = countListeners(c);
+        timer.start();
+    }
+
+    private void step() {
+        long start = System.nanoTime();
+        while (done < total) {
+            int ix = done / 2;
+            if ((done % 2) == 0) {
+                long t = System.nanoTime();
+                page.newSkin();
+                newTimes[ix] = System.nanoTime() - t;
+                skins.add(new WeakReference<>(control.getSkin()));
+                if (layout.isSelected()) {
+                    control.applyCss();
+                    control.layout();
+                }
+            } else {
+                long t = System.nanoTime();
+                page.nullSkin();
+                nullTimes[ix] = System.nanoTime() - t;
+            }
+            done++;
+
+            if ((System.nanoTime() - start) > FRAME_BUDGET_NS) {
+                break;
+            }
+        }
+
+        status.setText(pageName + ": " + done + " / " + total);
+        if (done >= total) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (control == null) {
+            return;
+        }
+        timer.stop();
+
+        // leave the control with a fresh skin
+        page.newSkin();
+        int listenersAfter = countListeners(control);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(pageName).append(": ").append(done).append(" swaps");
+        if (layout.isSelected()) {
+            sb.append(", with CSS + layout");
+        }
+        sb.append('\n');
+        sb.append("  control: ").append(control.getClass().getName()).append('\n');
+        report(sb, "  new skin  ", newTimes, (done + 1) / 2);
+        report(sb, "  null skin ", nullTimes, done / 2);
+        sb.append("  listeners before: ").append(fmt(listenersBefore));
+        sb.append(", after: ").append(fmt(listenersAfter));
+        if ((listenersBefore >= 0) && (listenersAfter >= 0)) {
+            sb.append(", leaked: ").append(listenersAfter - listenersBefore);
+        }
+        sb.append('\n');
+
+        ArrayList<WeakReference<Skin<?>>> refs = skins;
+        page = null;
+        control = null;
+        newTimes = null;
+        nullTimes = null;
+        skins = null;
+
+        status.setText("Collecting garbage...");
+        Thread t = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+
+            int alive = 0;
+            for (WeakReference<Skin<?>> r: refs) {
+                if (r.get() != null) {
+                    alive++;
+                }
+            }
+            sb.append("  old skins created: ").append(refs.size());
+            sb.append(", not collected: ").append(alive).append("\n\n");
+
+            Platform.runLater(() -> {
+                status.setText(null);
+                results.appendText(sb.toString());
+            });
+        }, "SkinStressTest");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void report(StringBuilder sb, String name, long[] times, int count) {
+        sb.append(name);
+        if (count <= 0) {
+            sb.append("n/a\n");
+            return;
+        }
+
+        long[] ts = Arrays.copyOf(times, count);
+        Arrays.sort(ts);
+        long sum = 0;
+        for (long t: ts) {
+            sum += t;
+        }
+        sb.append(String.format(
+            "avg=%d p50=%d p90=%d p99=%d max=%d (us)\n",
+            sum / count / 1000,
+            ts[count / 2] / 1000,
+            ts[(int)(count * 0.9)] / 1000,
+            ts[(int)(count * 0.99)] / 1000,
+            ts[count - 1] / 1000
+        ));
+    }
+
+    private static String fmt(int listeners) {
+        return listeners < 0 ? "n/a (requires --add-opens)" : String.valueOf(listeners);
+    }
+
+    /** finds the first control in the content area of the test pane */
+    private static Control findControl(Node page) {
+        Node content = page.lookup(".test-content");
+        if (content instanceof Parent p) {
+            return findControl(p);
+        }
+        return null;
+    }
+
+    private static Control findControl(Parent parent) {
+        for (Node n: parent.getChildrenUnmodifiable()) {
+            if (n instanceof Control c) {
+                return c;
+            } else if (n instanceof Parent p) {
+                Control c = findControl(p);
+                if (c != null) {
+                    return c;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the listeners registered with all the public properties of the control,
+     * or returns -1 if the JavaFX internals are not accessible.
+     */
+    private static int countListeners(Control c) {
+        int count = 0;
+        for (Method m: c.getClass().getMethods()) {
+            if (
+                Modifier.isStatic(m.getModifiers()) ||
+                (m.getParameterCount() != 0) ||
+                !m.getName().endsWith("Property") ||
+                !ObservableValue.class.isAssignableFrom(m.getReturnType())
+            ) {
+                continue;
+            }
+
+            try {
+                Object p = m.invoke(c);
+                if (p != null) {
+                    count += countListeners(p);
+                }
+            } catch (RuntimeException e) {
+                // InaccessibleObjectException
+                return -1;
+            } catch (ReflectiveOperationException e) {
+                // ignore
+            }
+        }
+        return count;
+    }
+
+    private static int countListeners(Object property) throws ReflectiveOperationException {
+        Field f = findField(property.getClass(), "helper");
+        if (f == null) {
+            return 0;
+        }
+
+        f.setAccessible(true);
+        Object helper = f.get(property);
+        if (helper == null) {
+            return 0;
+        } else if (helper.getClass().getSimpleName().startsWith("Single")) {
+            return 1;
+        }
+
+        // ExpressionHelper.Generic: invalidationSize, changeSize, ...
+        int count = 0;
+        for (Class<?> k = helper.getClass(); k != null; k = k.getSuperclass()) {
+            for (Field sf: k.getDeclaredFields()) {
+                if ((sf.getType() == int.class) && sf.getName().endsWith("Size")) {
+                    sf.setAccessible(true);
+                    count += sf.getInt(helper);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Field findField(Class<?> k, String name) {
+        for (; k != null; k = k.getSuperclass()) {
+            for (Field f: k.getDeclaredFields()) {
+                if (name.equals(f.getName())) {
+                    return f;
+                }
+            }
+        }
+        return null;
+    }
+}
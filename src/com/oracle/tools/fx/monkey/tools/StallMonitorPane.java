@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.geometry.Orientation;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.ToolBar;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
+import com.oracle.tools.fx.monkey.tools.FxThreadWatchdog.Stall;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.ObjectSelector;
+
+/**
+ * FX Application Thread Stall Monitor.
+ */
+public class StallMonitorPane extends BorderPane {
+    private final TableView<Stall> table;
+    private final TextArea stackField;
+
+    public StallMonitorPane() {
+        FX.name(this, "StallMonitorPane");
+
+        FxThreadWatchdog.start();
+
+        stackField = new TextArea();
+        stackField.setEditable(false);
+        stackField.setWrapText(false);
+
+        table = new TableView<>(FxThreadWatchdog.getStalls());
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
+        {
+            TableColumn<Stall, String> c = new TableColumn<>();
+            c.setText("Time");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(formatTime(d.getValue().time())));
+            c.setPrefWidth(100);
+            table.getColumns().add(c);
+        }
+        {
+            TableColumn<Stall, Long> c = new TableColumn<>();
+            c.setText("Duration (ms)");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().duration()));
+            c.setPrefWidth(100);
+            table.getColumns().add(c);
+        }
+        {
+            TableColumn<Stall, String> c = new TableColumn<>();
+            c.setText("Page");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().page()));
+            c.setPrefWidth(150);
+            table.getColumns().add(c);
+        }
+        {
+            TableColumn<Stall, String> c = new TableColumn<>();
+            c.setText("Last Action");
+            c.setCellValueFactory((d) -> new SimpleObjectProperty<>(d.getValue().action()));
+            c.setPrefWidth(1000);
+            table.getColumns().add(c);
+        }
+        table.getSelectionModel().selectedItemProperty().addListener((s, p, c) -> {
+            stackField.setText(c == null ? null : formatStack(c));
+        });
+
+        ObjectSelector<Long> threshold = new ObjectSelector<>("threshold", (v) -> {
+            FxThreadWatchdog.setThreshold(v);
+        });
+        threshold.addChoice("50 ms", 50L);
+        threshold.addChoice("100 ms", 100L);
+        threshold.addChoice("250 ms", 250L);
+        threshold.addChoice("500 ms", 500L);
+        threshold.addChoice("1,000 ms", 1_000L);
+        threshold.select(1);
+
+        Button clearButton = FX.button("Clear", () -> FxThreadWatchdog.getStalls().clear());
+        Button exportButton = FX.button("Export...", this::export);
+
+        ToolBar tp = new ToolBar(new Label("Threshold:"), threshold, clearButton, exportButton);
+
+        SplitPane split = new SplitPane(table, stackField);
+        FX.name(split, "split");
+        split.setOrientation(Orientation.VERTICAL);
+        split.setDividerPositions(0.5);
+
+        setTop(tp);
+        setCenter(split);
+    }
+
+    private static String formatTime(long t) {
+        return new SimpleDateFormat("HH:mm:ss.SSS").format(new Date(t));
+    }
+
+    private static String formatStack(Stall s) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(s.time())));
+        sb.append(" stall ").append(s.duration()).append(" ms");
+        sb.append(", page=").append(s.page());
+        sb.append(", last action=").append(s.action());
+        sb.append('\n');
+        for (StackTraceElement em: s.stack()) {
+            sb.append("    at ").append(em).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void export() {
+        FileChooser ch = new FileChooser();
+        ch.setTitle("Export Stalls");
+        ch.setInitialFileName("stalls.txt");
+        File f = ch.showSaveDialog(getScene().getWindow());
+        if (f == null) {
+            return;
+        }
+
+        List<Stall> stalls = FxThreadWatchdog.getStalls();
+        StringBuilder sb = new StringBuilder();
+        sb.append("# threshold=").append(FxThreadWatchdog.getThreshold()).append(" ms\n");
+        for (Stall s: stalls) {
+            sb.append(formatStack(s));
+            sb.append('\n');
+        }
+
+        try {
+            Files.writeString(f.toPath(), sb.toString(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.skin.TableHeaderRow;
+import com.oracle.tools.fx.monkey.util.FX;
+
+/**
+ * Operations on either a TableView or a TreeTableView, used by the benchmarks.
+ *
+ * The benchmarks substitute columns and resize policies created by the page options for whichever
+ * control the page shows, so the element types are not known; the casts are confined to {@link #cast(Object)}.
+ */
+final class Tables {
+    private Tables() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T cast(Object x) {
+        return (T)x;
+    }
+
+    /** returns the first TableView or TreeTableView in the subtree, or null */
+    public static Control findTable(Node root) {
+        return (Control)FX.find(root, (n) -> (n instanceof TableView) || (n instanceof TreeTableView));
+    }
+
+    public static TableHeaderRow findHeaderRow(Node root) {
+        return FX.find(root, TableHeaderRow.class);
+    }
+
+    /** returns the top level columns of the TableView or TreeTableView */
+    public static ObservableList<TableColumnBase<?, ?>> columns(Control c) {
+        if (c instanceof TableView<?> t) {
+            return cast(t.getColumns());
+        } else if (c instanceof TreeTableView<?> t) {
+            return cast(t.getColumns());
+        }
+        throw new IllegalArgumentException("not a table: " + c);
+    }
+
+    /** replaces the columns with the specified list, which must contain the columns of the right type */
+    public static void setColumns(Control c, Object columns) {
+        if (columns instanceof List<?> cs) {
+            List<TableColumnBase<?, ?>> list = cast(cs);
+            columns(c).setAll(list);
+        }
+    }
+
+    public static List<? extends TableColumnBase<?, ?>> visibleLeafColumns(Control c) {
+        if (c instanceof TableView<?> t) {
+            return t.getVisibleLeafColumns();
+        } else if (c instanceof TreeTableView<?> t) {
+            return t.getVisibleLeafColumns();
+        }
+        return List.of();
+    }
+
+    public static void resizeColumn(Control c, TableColumnBase<?, ?> column, double delta) {
+        if (c instanceof TableView<?> t) {
+            t.resizeColumn(cast(column), delta);
+        } else if (c instanceof TreeTableView<?> t) {
+            t.resizeColumn(cast(column), delta);
+        }
+    }
+
+    public static Object resizePolicy(Control c) {
+        if (c instanceof TableView<?> t) {
+            return t.getColumnResizePolicy();
+        } else if (c instanceof TreeTableView<?> t) {
+            return t.getColumnResizePolicy();
+        }
+        return null;
+    }
+
+    /** sets the column resize policy, which must be a policy for the type of the control */
+    public static void setResizePolicy(Control c, Object policy) {
+        if (c instanceof TableView<?> t) {
+            t.setColumnResizePolicy(cast(policy));
+        } else if (c instanceof TreeTableView<?> t) {
+            t.setColumnResizePolicy(cast(policy));
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.tools;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.ToolBar;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.Region;
+import com.oracle.tools.fx.monkey.util.FX;
+import com.oracle.tools.fx.monkey.util.UserActivity;
+
+/**
+ * Variable Height Benchmark.
+ *
+ * Runs the "Variable Height" item choices of the ListView page in the vertical orientation,
+ * and measures how well the VirtualFlow estimates the size of the content it has not laid out:
+ * <ul>
+ * <li>the estimated total size (derived from the scroll bar thumb) vs the actual size,
+ * which is measured by sizing a cell for each item; items with the same number of lines are
+ * assumed to have the same height, so that a million items can be measured in reasonable time
+ * <li>the scroll bar jitter: while scrolling by a constant number of pixels, the change of the scroll bar
+ * value is compared with the change expected from the actual size, and the backward moves are counted
+ * <li>the accuracy of setting the position: the offset of the viewport vs the offset expected from the actual size
+ * <li>the accuracy of jumping to an index: scrollToTop() should place the cell at the top of the viewport,
+ * scrollTo() should make it visible
+ * </ul>
+ * One step is performed per pulse; the result is taken after the layout pass.
+ */
+public class VariableHeightBenchmarkPane extends PulseBenchmarkPane {
+    private static final int SMOOTH_STEPS = 200;
+    private static final double SMOOTH_DELTA = 20;
+    private static final int POSITION_STEPS = 50;
+    private static final int INDEX_STEPS = 50;
+    private static final int MAX_CACHED_LINES = 1024;
+    private final Supplier<Node> pageSupplier;
+    // the state of the current run
+    private ListView<?> control;
+    private VirtualFlow<?> flow;
+    private ComboBox<?> itemsSelector;
+    private int originalItems;
+    private Orientation originalOrientation;
+    private double originalFixedCellSize;
+    private final Random random = new Random();
+    /** offsets[i] is the actual offset of the item i, offsets[count] is the total size */
+    private double[] offsets;
+    private double value;
+    private double delta;
+    private double position;
+    private int target;
+
+    private static class Result {
+        public final String items;
+        public int count;
+        public long measureTime;
+        public double actual;
+        public double firstEstimate = Double.NaN;
+        public double lastEstimate = Double.NaN;
+        public double maxError;
+        public final double[] jitter = new double[SMOOTH_STEPS];
+        public int jitterCount;
+        public int backward;
+        public final double[] positionErrors = new double[POSITION_STEPS];
+        public int positionCount;
+        public int topJumps;
+        public int topMisses;
+        public int scrollToJumps;
+        public int scrollToMisses;
+
+        public Result(String items) {
+            this.items = items;
+        }
+
+        public double error(double estimate) {
+            return 100.0 * (estimate - actual) / actual;
+        }
+    }
+
+    public VariableHeightBenchmarkPane(Supplier<Node> pageSupplier) {
+        FX.name(this, "VariableHeightBenchmarkPane");
+        this.pageSupplier = pageSupplier;
+
+        Button startButton = FX.button("Start", this::start);
+        Button stopButton = FX.button("Stop", this::stop);
+
+        setTop(new ToolBar(startButton, stopButton, status));
+    }
+
+    private void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        Node page = pageSupplier.get();
+        Node content = (page == null) ? null : page.lookup(".test-content");
+        ListView<?> c = FX.find(content, ListView.class);
+        VirtualFlow<?> f = FX.find(c, VirtualFlow.class);
+        if ((f == null) || (c.getScene() == null)) {
+            status.setText("No ListView in the current page");
+            return;
+        }
+
+        ComboBox<?> sel = FX.findComboBox(page, "items");
+        if (sel == null) {
+            status.setText("No items option in the current page");
+            return;
+        }
+
+        control = c;
+        flow = f;
+        itemsSelector = sel;
+        originalItems = sel.getSelectionModel().getSelectedIndex();
+        originalOrientation = c.getOrientation();
+        originalFixedCellSize = c.getFixedCellSize();
+
+        for (int i = 0; i < sel.getItems().size(); i++) {
+            String name = String.valueOf(sel.getItems().get(i));
+            if (name.contains("Variable Height")) {
+                plan(i, new Result(name));
+            }
+        }
+
+        if (!hasTasks()) {
+            status.setText("No variable height items in the current page");
+            control = null;
+            flow = null;
+            itemsSelector = null;
+            return;
+        }
+
+        results.appendText(UserActivity.getPage() + "\n");
+        results.appendText(String.format(
+            "%-28s %9s %8s %12s %7s %7s %7s %7s %7s %5s %9s %9s %8s %8s\n",
+            "items", "count", "meas ms", "actual px", "est0 %", "est1 %", "max %",
+            "jit50 %", "jitmax %", "back", "pos50 px", "posmax px", "top miss", "to miss"
+        ));
+
+        run(f);
+    }
+
+    private void plan(int itemsIndex, Result r) {
+        addTask(() -> {
+            status.setText(r.items);
+            itemsSelector.getSelectionModel().select(itemsIndex);
+            control.setOrientation(Orientation.VERTICAL);
+            control.setFixedCellSize(Region.USE_COMPUTED_SIZE);
+            flow.scrollTo(0);
+        });
+
+        addTask(() -> {
+            long start = System.nanoTime();
+            measure(r);
+            r.measureTime = System.nanoTime() - start;
+            random.setSeed(1);
+        }, (t) -> {
+            checkEstimate(r);
+            r.firstEstimate = r.lastEstimate;
+        });
+
+        for (int i = 0; i < SMOOTH_STEPS; i++) {
+            addTask(() -> {
+                value = scrollBarValue();
+                delta = flow.scrollPixels(SMOOTH_DELTA);
+            }, (t) -> {
+                checkEstimate(r);
+                double range = r.actual - viewportLength();
+                if ((delta > 0.0) && (range > 0.0)) {
+                    double change = scrollBarValue() - value;
+                    double expected = delta / range;
+                    if (change < 0.0) {
+                        r.backward++;
+                    }
+                    r.jitter[r.jitterCount++] = 100.0 * Math.abs(change - expected) / expected;
+                }
+            });
+        }
+
+        for (int i = 0; i < POSITION_STEPS; i++) {
+            addTask(() -> {
+                position = random.nextDouble();
+                flow.setPosition(position);
+            }, (t) -> {
+                checkEstimate(r);
+                IndexedCell<?> c = flow.getFirstVisibleCell();
+                if ((c != null) && (c.getIndex() >= 0) && (c.getIndex() < r.count)) {
+                    double offset = offsets[c.getIndex()] - c.getLayoutY();
+                    double expected = position * Math.max(0.0, r.actual - viewportLength());
+                    r.positionErrors[r.positionCount++] = Math.abs(offset - expected);
+                }
+            });
+        }
+
+        for (int i = 0; i < INDEX_STEPS; i++) {
+            boolean top = ((i & 1) == 0);
+            addTask(() -> {
+                target = random.nextInt(r.count);
+                if (top) {
+                    flow.scrollToTop(target);
+                } else {
+                    flow.scrollTo(target);
+                }
+            }, (t) -> {
+                checkEstimate(r);
+                if (top) {
+                    r.topJumps++;
+                    IndexedCell<?> c = flow.getFirstVisibleCell();
+                    if ((c == null) || (c.getIndex() != target) || (Math.abs(c.getLayoutY()) > 0.5)) {
+                        r.topMisses++;
+                    }
+                } else {
+                    r.scrollToJumps++;
+                    if (!isVisible(flow.getVisibleCell(target))) {
+                        r.scrollToMisses++;
+                    }
+                }
+            });
+        }
+
+        addTask(() -> {
+            results.appendText(format(r));
+            offsets = null;
+        });
+    }
+
+    /** computes the actual offsets of all the items */
+    private void measure(Result r) {
+        List<?> items = control.getItems();
+        int count = items.size();
+        double[] byLines = new double[MAX_CACHED_LINES];
+        Arrays.fill(byLines, Double.NaN);
+        IndexedCell<?> accumCell = null;
+
+        offsets = new double[count + 1];
+        for (int i = 0; i < count; i++) {
+            int lines = lineCount(items.get(i));
+            double h = ((lines > 0) && (lines < MAX_CACHED_LINES)) ? byLines[lines] : Double.NaN;
+            if (Double.isNaN(h)) {
+                IndexedCell<?> c = flow.getCell(i);
+                h = c.getLayoutBounds().getHeight();
+                if ((lines > 0) && (lines < MAX_CACHED_LINES)) {
+                    byLines[lines] = h;
+                }
+                if (flow.getVisibleCell(i) != c) {
+                    accumCell = c;
+                }
+            }
+            offsets[i + 1] = offsets[i] + h;
+        }
+
+        if (accumCell != null) {
+            // release the measuring cell, as the VirtualFlow does after using it
+            accumCell.updateIndex(-1);
+        }
+
+        r.count = count;
+        r.actual = offsets[count];
+    }
+
+    /** returns the number of lines in a String item, or 0 if the item needs to be measured individually */
+    private static int lineCount(Object item) {
+        if (item instanceof String s) {
+            int lines = 1;
+            for (int i = s.indexOf('\n'); i >= 0; i = s.indexOf('\n', i + 1)) {
+                lines++;
+            }
+            return lines;
+        }
+        return 0;
+    }
+
+    private void checkEstimate(Result r) {
+        double est = estimatedSize();
+        if (Double.isFinite(est) && (r.actual > 0.0)) {
+            r.lastEstimate = est;
+            r.maxError = Math.max(r.maxError, Math.abs(r.error(est)));
+        }
+    }
+
+    /**
+     * Returns the estimated size of the content, derived from the scroll bar
+     * (the VirtualFlow sets the visible amount of its length bar to viewportLength / estimatedSize).
+     */
+    private double estimatedSize() {
+        ScrollBar sb = findScrollBar(flow);
+        if ((sb == null) || !sb.isVisible() || (sb.getVisibleAmount() <= 0.0)) {
+            return Double.NaN;
+        }
+        return sb.getHeight() / sb.getVisibleAmount();
+    }
+
+    private double scrollBarValue() {
+        ScrollBar sb = findScrollBar(flow);
+        return (sb == null) ? 0.0 : sb.getValue();
+    }
+
+    private double viewportLength() {
+        ScrollBar sb = findScrollBar(flow);
+        return ((sb == null) || !sb.isVisible()) ? flow.getHeight() : sb.getHeight();
+    }
+
+    /** the cell should be fully visible, or its top visible if it is taller than the viewport */
+    private boolean isVisible(IndexedCell<?> c) {
+        if (c == null) {
+            return false;
+        }
+        double y = c.getLayoutY();
+        double max = viewportLength();
+        if (y < -0.5) {
+            return false;
+        }
+        return (y + c.getHeight() <= max + 0.5) || (y <= 0.5);
+    }
+
+    @Override
+    protected void onStop(boolean complete) {
+        itemsSelector.getSelectionModel().select(originalItems);
+        control.setOrientation(originalOrientation);
+        control.setFixedCellSize(originalFixedCellSize);
+
+        control = null;
+        flow = null;
+        itemsSelector = null;
+        offsets = null;
+    }
+
+    private static String format(Result r) {
+        double[] jit = Arrays.copyOf(r.jitter, r.jitterCount);
+        Arrays.sort(jit);
+        double[] pos = Arrays.copyOf(r.positionErrors, r.positionCount);
+        Arrays.sort(pos);
+        String items = (r.items.length() > 28) ? r.items.substring(0, 28) : r.items;
+        return String.format(
+            "%-28s %9d %8.1f %12.0f %7.1f %7.1f %7.1f %7.1f %7.1f %5d %9.1f %9.1f %8s %8s\n",
+            items,
+            r.count,
+            r.measureTime / 1e6,
+            r.actual,
+            r.error(r.firstEstimate),
+            r.error(r.lastEstimate),
+            r.maxError,
+            (jit.length == 0) ? 0.0 : jit[jit.length / 2],
+            (jit.length == 0) ? 0.0 : jit[jit.length - 1],
+            r.backward,
+            (pos.length == 0) ? 0.0 : pos[pos.length / 2],
+            (pos.length == 0) ? 0.0 : pos[pos.length - 1],
+            r.topMisses + "/" + r.topJumps,
+            r.scrollToMisses + "/" + r.scrollToJumps
+        );
+    }
+
+    /** finds the vertical scroll bar of the VirtualFlow */
+    private static ScrollBar findScrollBar(VirtualFlow<?> f) {
+        for (Node n: f.getChildrenUnmodifiable()) {
+            if ((n instanceof ScrollBar sb) && (sb.getOrientation() == Orientation.VERTICAL)) {
+                return sb;
+            }
+        }
+        return null;
+    }
+}
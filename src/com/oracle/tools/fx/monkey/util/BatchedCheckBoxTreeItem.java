@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.ArrayDeque;
+import javafx.scene.control.CheckBoxTreeItem;
+import javafx.scene.control.TreeItem;
+
+/**
+ * CheckBoxTreeItem which propagates the selection in a single pass.
+ * <p>
+ * The standard implementation recomputes the parent state after every child change,
+ * scanning all the siblings each time, so selecting a node with N children costs O(N^2).
+ * This item disables the standard propagation (the item is always independent),
+ * sets the state of all the descendants first, then recomputes each ancestor once,
+ * stopping as soon as an ancestor state does not change.
+ * Unlike the standard implementation, changing the indeterminate state only updates the ancestors.
+ * <p>
+ * The propagation is only performed between instances of this class.
+ */
+public class BatchedCheckBoxTreeItem<T> extends CheckBoxTreeItem<T> {
+    private static boolean propagating;
+
+    public BatchedCheckBoxTreeItem(T value) {
+        super(value, null, false, true);
+        selectedProperty().addListener((s, p, c) -> propagate(true));
+        indeterminateProperty().addListener((s, p, c) -> propagate(false));
+    }
+
+    private void propagate(boolean downwards) {
+        if (propagating) {
+            return;
+        }
+
+        propagating = true;
+        try {
+            if (downwards && !isLeaf()) {
+                updateDescendants(this, isSelected());
+                setIndeterminate(false);
+            }
+            updateAncestors(this);
+        } finally {
+            propagating = false;
+        }
+    }
+
+    private static void updateDescendants(TreeItem<?> item, boolean selected) {
+        ArrayDeque<TreeItem<?>> pending = new ArrayDeque<>();
+        pending.push(item);
+        while (!pending.isEmpty()) {
+            TreeItem<?> it = pending.pop();
+            if (it.isLeaf()) {
+                continue;
+            }
+            for (TreeItem<?> ch: it.getChildren()) {
+                if (ch instanceof BatchedCheckBoxTreeItem<?> c) {
+                    c.setSelected(selected);
+                    c.setIndeterminate(false);
+                    pending.push(c);
+                }
+            }
+        }
+    }
+
+    private static void updateAncestors(TreeItem<?> item) {
+        TreeItem<?> p = item.getParent();
+        while (p instanceof BatchedCheckBoxTreeItem<?> parent) {
+            int selected = 0;
+            int indeterminate = 0;
+            for (TreeItem<?> ch: parent.getChildren()) {
+                if (ch instanceof CheckBoxTreeItem<?> c) {
+                    if (c.isIndeterminate()) {
+                        indeterminate++;
+                    } else if (c.isSelected()) {
+                        selected++;
+                    }
+                }
+            }
+
+            boolean sel;
+            boolean ind;
+            if (selected == parent.getChildren().size()) {
+                sel = true;
+                ind = false;
+            } else if ((selected == 0) && (indeterminate == 0)) {
+                sel = false;
+                ind = false;
+            } else {
+                sel = parent.isSelected();
+                ind = true;
+            }
+
+            if ((sel == parent.isSelected()) && (ind == parent.isIndeterminate())) {
+                // the remaining ancestors are not affected
+                return;
+            }
+            parent.setSelected(sel);
+            parent.setIndeterminate(ind);
+            p = parent.getParent();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.function.BooleanSupplier;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.util.Callback;
+import javafx.util.Duration;
+
+/**
+ * Cell Factory Instrumentation.
+ *
+ * Wraps any cell factory, counting the cells created and the changes of the cell index.
+ *
+ * The cells created by an arbitrary factory cannot be intercepted, so their {@code updateItem()} calls
+ * are neither counted nor timed.  The cells built by the pages themselves call {@link #addUpdate(boolean, long)}
+ * from their {@code updateItem()}, which gives the actual number of calls (including the ones which
+ * re-set the same index or item) and the time spent in them.
+ */
+public class CellStats {
+    private long created;
+    private long indexChanges;
+    private long updates;
+    private long emptyUpdates;
+    private long time;
+
+    public CellStats() {
+    }
+
+    /**
+     * Creates a cell factory which counts the cells created by the specified factory,
+     * and the changes of their index.
+     */
+    public <P, C extends IndexedCell<?>> Callback<P, C> wrap(Callback<P, C> factory) {
+        return wrap(factory, () -> true);
+    }
+
+    /**
+     * Creates a cell factory which counts the cells created by the specified factory,
+     * and the changes of their index, while the condition is true.
+     * The condition is checked on each call, so the factory can be created before the condition is set.
+     */
+    public <P, C extends IndexedCell<?>> Callback<P, C> wrap(Callback<P, C> factory, BooleanSupplier enabled) {
+        return (p) -> {
+            C c = factory.call(p);
+            if (c != null) {
+                if (enabled.getAsBoolean()) {
+                    created++;
+                }
+                c.indexProperty().addListener((s, pr, v) -> {
+                    if (enabled.getAsBoolean()) {
+                        indexChanges++;
+                    }
+                });
+            }
+            return c;
+        };
+    }
+
+    /**
+     * Records one {@code updateItem()} call, to be called by the instrumented cells.
+     * @param empty the {@code empty} argument of the call
+     * @param elapsed the time spent in the call, in nanoseconds
+     */
+    public void addUpdate(boolean empty, long elapsed) {
+        updates++;
+        if (empty) {
+            emptyUpdates++;
+        }
+        time += elapsed;
+    }
+
+    public void reset() {
+        created = 0;
+        indexChanges = 0;
+        updates = 0;
+        emptyUpdates = 0;
+        time = 0;
+    }
+
+    private String getText() {
+        return String.format(
+            "Cells created: %,d\nIndex changes: %,d\nupdateItem (page cells only): %,d\n  empty: %,d\n  non-empty: %,d\nupdateItem time: %.1f ms\n  average: %.1f us",
+            created,
+            indexChanges,
+            updates,
+            emptyUpdates,
+            updates - emptyUpdates,
+            time / 1e6,
+            (updates == 0) ? 0.0 : (time / 1e3 / updates)
+        );
+    }
+
+    /**
+     * Creates a node which shows the counters, updated while the node is showing, and a Reset button.
+     */
+    public Node createPane() {
+        Label label = new Label();
+        label.setText(getText());
+
+        Timeline t = new Timeline(new KeyFrame(Duration.millis(500), (ev) -> {
+            label.setText(getText());
+        }));
+        t.setCycleCount(Timeline.INDEFINITE);
+
+        label.sceneProperty().addListener((s, p, c) -> {
+            if (c == null) {
+                t.stop();
+            } else {
+                t.play();
+            }
+        });
+
+        Button resetButton = FX.button("Reset", () -> {
+            reset();
+            label.setText(getText());
+        });
+
+        return new VBox(2, label, resetButton);
+    }
+}
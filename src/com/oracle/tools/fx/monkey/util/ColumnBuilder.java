@@ -24,6 +24,7 @@
  */
 package com.oracle.tools.fx.monkey.util;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
@@ -70,6 +71,99 @@ public class ColumnBuilder<T extends TableColumnBase<?, ?>> {
         return this;
     }
 
+    /**
+     * Sets the generator of the DataRow values for the last column.
+     */
+    public ColumnBuilder<T> values(ValueGenerator g) {
+        ValueGenerator.set(last, g);
+        return this;
+    }
+
+    /**
+     * Adds the specified number of columns with typed values, cycling through the text, category,
+     * integer, double, timestamp, boolean, and the text templates columns.
+     * The column index is used as the generator seed.
+     */
+    public ColumnBuilder<T> typed(int count) {
+        for (int i = 0; i < count; i++) {
+            String suffix = (count <= 7) ? "" : String.valueOf(i + 1);
+            switch (i % 7) {
+            case 0:
+                col("Name" + suffix).pref(150).values(ValueGenerator.text(i, 4, false));
+                break;
+            case 1:
+                col("Category" + suffix).values(ValueGenerator.categories(i, 1_000, 1.1));
+                break;
+            case 2:
+                col("Quantity" + suffix).values(ValueGenerator.integers(i, 0, 100_000));
+                break;
+            case 3:
+                col("Price" + suffix).values(ValueGenerator.doubles(i, 0.01, 10_000.0));
+                break;
+            case 4:
+                col("Timestamp" + suffix).pref(150).values(ValueGenerator.timestamps(i, Instant.parse("2020-01-01T00:00:00Z"), 5 * 365));
+                break;
+            case 5:
+                col("Active" + suffix).values(ValueGenerator.booleans(i, 0.8));
+                break;
+            default:
+                col("Notes" + suffix).pref(300).values(ValueGenerator.text(i, 20, true));
+                break;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the specified number of columns, cycling through the fixed, pref, min, max, and unconstrained ones.
+     */
+    public ColumnBuilder<T> mixed(int count) {
+        for (int i = 0; i < count; i++) {
+            String name = "C" + (i + 1);
+            switch (i % 5) {
+            case 0:
+                col("Fixed" + name).fixed(60);
+                break;
+            case 1:
+                col("Pref" + name).pref(120);
+                break;
+            case 2:
+                col("Min" + name).min(50);
+                break;
+            case 3:
+                col("Max" + name).max(100);
+                break;
+            default:
+                col(name);
+                break;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds a nested column hierarchy with the specified number of levels,
+     * where the top level and each non-leaf column have the specified number of children.
+     */
+    public ColumnBuilder<T> nested(int depth, int breadth) {
+        for (int i = 0; i < breadth; i++) {
+            last = (T)createNested(depth, breadth, "N" + (i + 1));
+            columns.add(last);
+        }
+        return this;
+    }
+
+    private TableColumnBase createNested(int depth, int breadth, String name) {
+        var tc = generator.get();
+        tc.setText(name);
+        if (depth > 1) {
+            for (int i = 0; i < breadth; i++) {
+                tc.getColumns().add(createNested(depth - 1, breadth, name + "." + (i + 1)));
+            }
+        }
+        return tc;
+    }
+
     public ColumnBuilder<T> combine(int index, int count) {
         var tc = generator.get();
         tc.setText("N" + (++id));
@@ -25,7 +25,6 @@
 package com.oracle.tools.fx.monkey.util;
 
 import java.util.HashMap;
-import java.util.Random;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.util.StringConverter;
@@ -35,26 +34,49 @@ import javafx.util.StringConverter;
  */
 public class DataRow {
     private final HashMap<Object, ObjectProperty> values = new HashMap();
+    private final long id;
+    private static long seq;
     private static StringConverter<Object> converter;
 
+    /**
+     * Creates a row with the specified id, which determines the generated values.
+     */
+    public DataRow(long id) {
+        this.id = id;
+    }
+
     public DataRow() {
+        this(seq++);
+    }
+
+    public long getId() {
+        return id;
     }
 
     public ObjectProperty getValue(Object key) {
+        return getValue(key, null);
+    }
+
+    /**
+     * Returns the value for the specified key, creating it with the specified generator on first access.
+     * A null generator creates the legacy values: random integers as strings.
+     */
+    public ObjectProperty getValue(Object key, ValueGenerator generator) {
         ObjectProperty rv = values.get(key);
         if (rv == null) {
-            Object v = createValue();
+            Object v;
+            if (generator == null) {
+                // mix in the key, or all the columns would get the same value
+                v = ValueGenerator.DEFAULT.getValue(id * 31 + key.hashCode());
+            } else {
+                v = generator.getValue(id);
+            }
             rv = new SimpleObjectProperty(v);
             values.put(key, rv);
         }
         return rv;
     }
 
-    private Object createValue() {
-        // TODO doubles, longs, strings, integers, boolean
-        return String.valueOf(new Random().nextInt());
-    }
-
     public static StringConverter<Object> converter() {
         if (converter == null) {
             converter = new StringConverter<>() {
@@ -25,10 +25,12 @@
 package com.oracle.tools.fx.monkey.util;
 
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
@@ -104,7 +106,7 @@ public class FX {
         }
     }
 
-    private static Menu lastMenu(MenuBar b) {
+    public static Menu lastMenu(MenuBar b) {
         List<Menu> ms = b.getMenus();
         return ms.get(ms.size() - 1);
     }
@@ -304,4 +306,43 @@ public class FX {
             n.getStyleClass().remove(style);
         }
     }
+
+    /** returns the first node in the subtree (depth first, starting with the root) which satisfies the predicate, or null */
+    public static Node find(Node root, Predicate<Node> p) {
+        if (root == null) {
+            return null;
+        } else if (p.test(root)) {
+            return root;
+        }
+
+        if (root instanceof Parent parent) {
+            for (Node ch: parent.getChildrenUnmodifiable()) {
+                Node n = find(ch, p);
+                if (n != null) {
+                    return n;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** returns the first node in the subtree (depth first, starting with the root) of the specified type, or null */
+    public static <T extends Node> T find(Node root, Class<T> type) {
+        return type.cast(find(root, type::isInstance));
+    }
+
+    /** returns the first ComboBox in the subtree with one of the specified names (see {@link #name(Node, String)}), or null */
+    public static ComboBox<?> findComboBox(Node root, String... names) {
+        return (ComboBox<?>)find(root, (n) -> {
+            if (n instanceof ComboBox) {
+                String name = getName(n);
+                for (String s: names) {
+                    if (s.equals(name)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javafx.collections.ModifiableObservableListBase;
+
+/**
+ * A modifiable observable list which can replace its content with a single change
+ * carrying the exact diff when the new content is obtained from the old one by removing
+ * (or by inserting) elements, which is the case when a filter narrows (or widens).
+ * Falls back to a single replacement change when the diff is not of that form, or is too fragmented.
+ */
+public class FilteredItems<T> extends ModifiableObservableListBase<T> {
+    private static final int MAX_RUNS = 256;
+    private ArrayList<T> items = new ArrayList<>();
+
+    public FilteredItems() {
+    }
+
+    /** replaces the content, firing a single change */
+    public void publish(List<T> next) {
+        ArrayList<T> old = items;
+        int[] runs;
+        if (next.size() <= old.size()) {
+            runs = diff(next, old);
+            if (runs != null) {
+                beginChange();
+                // from last to first, so the positions remain valid in the old list
+                for (int i = runs.length - 2; i >= 0; i -= 2) {
+                    nextRemove(runs[i], new ArrayList<>(old.subList(runs[i], runs[i + 1])));
+                }
+                items = new ArrayList<>(next);
+                endChange();
+                return;
+            }
+        } else {
+            runs = diff(old, next);
+            if (runs != null) {
+                items = new ArrayList<>(next);
+                beginChange();
+                for (int i = 0; i < runs.length; i += 2) {
+                    nextAdd(runs[i], runs[i + 1]);
+                }
+                endChange();
+                return;
+            }
+        }
+
+        beginChange();
+        if (!old.isEmpty()) {
+            nextRemove(0, old);
+        }
+        items = new ArrayList<>(next);
+        if (!items.isEmpty()) {
+            nextAdd(0, items.size());
+        }
+        endChange();
+    }
+
+    /**
+     * When the short list is a subsequence of the long one (by identity), returns the [from, to) runs
+     * of the long list elements missing in the short one, or null otherwise or when there are too many runs.
+     */
+    private static <T> int[] diff(List<T> shortList, List<T> longList) {
+        int[] runs = new int[MAX_RUNS * 2];
+        int count = 0;
+        int j = 0;
+        int sz = longList.size();
+        for (int i = 0; i < sz; i++) {
+            T item = longList.get(i);
+            if ((j < shortList.size()) && (shortList.get(j) == item)) {
+                j++;
+            } else {
+                if ((count > 0) && (runs[count - 1] == i)) {
+                    runs[count - 1] = i + 1;
+                } else {
+                    if (count == runs.length) {
+                        return null;
+                    }
+                    runs[count++] = i;
+                    runs[count++] = i + 1;
+                }
+            }
+        }
+        if (j != shortList.size()) {
+            return null;
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    protected void doAdd(int index, T element) {
+        items.add(index, element);
+    }
+
+    @Override
+    protected T doSet(int index, T element) {
+        return items.set(index, element);
+    }
+
+    @Override
+    protected T doRemove(int index) {
+        return items.remove(index);
+    }
+}
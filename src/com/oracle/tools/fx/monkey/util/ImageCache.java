@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * Shared bounded cache of generated images, keyed by (text, size),
+ * with the least recently used images evicted when the total size of the pixels exceeds the limit.
+ * The cache can be disabled in order to separate the cost of generating images from other costs.
+ */
+public class ImageCache {
+    private static final long MAX_BYTES = 128L * 1024 * 1024;
+    private record Key(String text, int width, int height) { }
+    private static final LinkedHashMap<Key, Image> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private static final SimpleBooleanProperty enabled = new SimpleBooleanProperty(true);
+    private static long bytes;
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+
+    static {
+        enabled.addListener((s, p, on) -> {
+            if (!on) {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * Returns the cached image, or the image created by the generator
+     * (and added to the cache when enabled).
+     */
+    public static Image get(String text, int w, int h, Supplier<Image> generator) {
+        if (!enabled.get()) {
+            return generator.get();
+        }
+
+        Key k = new Key(text, w, h);
+        synchronized (cache) {
+            Image im = cache.get(k);
+            if (im != null) {
+                hits++;
+                return im;
+            }
+            misses++;
+        }
+
+        Image im = generator.get();
+        long sz = 4L * w * h;
+        if (sz <= MAX_BYTES) {
+            synchronized (cache) {
+                if (cache.put(k, im) == null) {
+                    bytes += sz;
+                }
+                evict();
+            }
+        }
+        return im;
+    }
+
+    private static void evict() {
+        Iterator<Map.Entry<Key, Image>> it = cache.entrySet().iterator();
+        while ((bytes > MAX_BYTES) && it.hasNext()) {
+            Key k = it.next().getKey();
+            it.remove();
+            bytes -= 4L * k.width() * k.height();
+            evictions++;
+        }
+    }
+
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+            bytes = 0;
+        }
+    }
+
+    public static void resetCounters() {
+        synchronized (cache) {
+            hits = 0;
+            misses = 0;
+            evictions = 0;
+        }
+    }
+
+    public static BooleanProperty enabledProperty() {
+        return enabled;
+    }
+
+    private static String getText() {
+        synchronized (cache) {
+            long total = hits + misses;
+            return String.format(
+                "Images: %,d (%.1f of %d MB)\nHits: %,d (%.1f%%)\nMisses: %,d\nEvictions: %,d",
+                cache.size(),
+                bytes / (1024.0 * 1024),
+                MAX_BYTES / (1024 * 1024),
+                hits,
+                (total == 0) ? 0.0 : (100.0 * hits / total),
+                misses,
+                evictions
+            );
+        }
+    }
+
+    /**
+     * Creates a node with the option to enable the cache and the counters, updated while the node is showing.
+     */
+    public static Node createPane() {
+        CheckBox enable = new CheckBox("image cache");
+        FX.name(enable, "imageCache");
+        enable.selectedProperty().bindBidirectional(enabled);
+
+        Label label = new Label(getText());
+
+        Timeline t = new Timeline(new KeyFrame(Duration.millis(500), (ev) -> {
+            label.setText(getText());
+        }));
+        t.setCycleCount(Timeline.INDEFINITE);
+
+        label.sceneProperty().addListener((s, p, c) -> {
+            if (c == null) {
+                t.stop();
+            } else {
+                t.play();
+            }
+        });
+
+        Button clearButton = FX.button("Clear", () -> {
+            clear();
+            resetCounters();
+            label.setText(getText());
+        });
+
+        return new VBox(2, enable, label, clearButton);
+    }
+}
@@ -26,18 +26,33 @@ package com.oracle.tools.fx.monkey.util;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.PixelWriter;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 
 /**
  * Image Tools.
+ *
+ * The images are generated by filling the pixel arrays and writing them into the image in bulk,
+ * which can be done in any thread, see {@link #createImageAsync(Pattern, long, int, int)}.
  */
 public class ImageTools {
+    /** the number of rows generated at once, limits the memory needed for large images */
+    private static final int STRIP_PIXELS = 1 << 20;
+    private static final int CHECKER_SIZE = 32;
+
+    /** Generated image patterns. */
+    public enum Pattern {
+        CHECKERBOARD,
+        GRADIENT,
+        NOISE
+    }
+
     public static ImageView createImageView(Color c, int w, int h) {
         Image im = createImage(c, w, h);
         return new ImageView(im);
@@ -45,18 +60,27 @@ public class ImageTools {
 
     public static Image createImage(Color c, int w, int h) {
         WritableImage im = new WritableImage(w, h);
-        PixelWriter wr = im.getPixelWriter();
+        int argb = toArgbPre(c);
+        int rows = stripRows(w, h);
+        int[] pixels = new int[w * rows];
+        Arrays.fill(pixels, argb);
 
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                wr.setColor(x, y, c);
-            }
+        for (int y = 0; y < h; y += rows) {
+            int n = Math.min(rows, h - y);
+            im.getPixelWriter().setPixels(0, y, w, n, PixelFormat.getIntArgbPreInstance(), pixels, 0, w);
         }
-
         return im;
     }
 
+    /**
+     * Creates an image filled with the color derived from the string.
+     * The images are shared via {@link ImageCache}.
+     */
     public static Image createImage(String s, int w, int h) {
+        return ImageCache.get(s, w, h, () -> generateImage(s, w, h));
+    }
+
+    private static Image generateImage(String s, int w, int h) {
         byte[] hash;
         try {
             hash = MessageDigest.getInstance("sha-256").digest(s.getBytes());
@@ -65,10 +89,91 @@ public class ImageTools {
             hash = new byte[3];
         }
         Color color = Color.rgb(hash[0] & 0xff, hash[1] & 0xff, hash[2] & 0xff);
-        Canvas c = new Canvas(w, h);
-        GraphicsContext g = c.getGraphicsContext2D();
-        g.setFill(color);
-        g.fillRect(0, 0, w, h);
-        return c.snapshot(null, null);
+        return createImage(color, w, h);
+    }
+
+    /**
+     * Generates a patterned image, computing the horizontal strips of pixels in parallel.
+     * The result depends only on the arguments, not on the number of threads.
+     * This method can be called in any thread.
+     */
+    public static WritableImage createImage(Pattern p, long seed, int w, int h) {
+        WritableImage im = new WritableImage(w, h);
+        int rows = stripRows(w, h);
+        int strips = (h + rows - 1) / rows;
+        int c1 = 0xff000000 | (int)mix(seed);
+        int c2 = 0xff000000 | (int)mix(seed + 1);
+
+        IntStream.range(0, strips).parallel().forEach((i) -> {
+            int y0 = i * rows;
+            int n = Math.min(rows, h - y0);
+            int[] pixels = new int[w * n];
+            for (int y = 0; y < n; y++) {
+                fillRow(p, pixels, y * w, w, h, y0 + y, c1, c2, seed);
+            }
+            synchronized (im) {
+                im.getPixelWriter().setPixels(0, y0, w, n, PixelFormat.getIntArgbPreInstance(), pixels, 0, w);
+            }
+        });
+        return im;
+    }
+
+    /**
+     * Generates a patterned image in a background thread.
+     */
+    public static CompletableFuture<WritableImage> createImageAsync(Pattern p, long seed, int w, int h) {
+        return CompletableFuture.supplyAsync(() -> createImage(p, seed, w, h));
+    }
+
+    private static void fillRow(Pattern p, int[] pixels, int off, int w, int h, int y, int c1, int c2, long seed) {
+        switch (p) {
+        case CHECKERBOARD:
+            for (int x = 0; x < w; x++) {
+                boolean odd = (((x / CHECKER_SIZE) + (y / CHECKER_SIZE)) & 1) != 0;
+                pixels[off + x] = odd ? c2 : c1;
+            }
+            break;
+        case GRADIENT:
+            // diagonal gradient from c1 (top left) to c2 (bottom right)
+            double d = (double)w + h - 2;
+            for (int x = 0; x < w; x++) {
+                double f = (d <= 0) ? 0 : (x + y) / d;
+                pixels[off + x] = blend(c1, c2, f);
+            }
+            break;
+        case NOISE:
+            for (int x = 0; x < w; x++) {
+                pixels[off + x] = 0xff000000 | (int)mix(seed ^ (((long)y << 32) | x));
+            }
+            break;
+        }
+    }
+
+    private static int stripRows(int w, int h) {
+        return Math.max(1, Math.min(h, STRIP_PIXELS / Math.max(1, w)));
+    }
+
+    private static int blend(int c1, int c2, double f) {
+        int r = (int)Math.round(((c1 >> 16) & 0xff) * (1 - f) + ((c2 >> 16) & 0xff) * f);
+        int g = (int)Math.round(((c1 >> 8) & 0xff) * (1 - f) + ((c2 >> 8) & 0xff) * f);
+        int b = (int)Math.round((c1 & 0xff) * (1 - f) + (c2 & 0xff) * f);
+        return 0xff000000 | (r << 16) | (g << 8) | b;
+    }
+
+    private static int toArgbPre(Color c) {
+        double a = c.getOpacity();
+        int ia = (int)Math.round(a * 255);
+        int r = (int)Math.round(c.getRed() * a * 255);
+        int g = (int)Math.round(c.getGreen() * a * 255);
+        int b = (int)Math.round(c.getBlue() * a * 255);
+        return (ia << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /** SplitMix64 finalizer */
+    private static long mix(long z) {
+        z += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
     }
 }
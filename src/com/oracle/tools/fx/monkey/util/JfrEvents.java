@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder events emitted by Monkey Tester,
+ * to correlate the user actions with GC, allocation and CPU samples.
+ */
+public class JfrEvents {
+    private static final String CATEGORY = "Monkey Tester";
+
+    @Name("monkey.PageCreate")
+    @Label("Page Create")
+    @Category(CATEGORY)
+    @Description("Creation of the page pane")
+    public static class PageCreate extends Event {
+        @Label("Page")
+        public String page;
+    }
+
+    @Name("monkey.OptionChange")
+    @Label("Option Change")
+    @Category(CATEGORY)
+    @Description("Change of an option made by the user")
+    public static class OptionChange extends Event {
+        @Label("Option")
+        public String option;
+
+        @Label("Value")
+        public String value;
+    }
+
+    @Name("monkey.SkinChange")
+    @Label("Skin Change")
+    @Category(CATEGORY)
+    @Description("Setting a new or null skin on the control")
+    public static class SkinChange extends Event {
+        @Label("Page")
+        public String page;
+
+        @Label("New Skin")
+        public boolean newSkin;
+    }
+
+    @Name("monkey.SettingsSave")
+    @Label("Settings Save")
+    @Category(CATEGORY)
+    @Description("Saving of the user preferences")
+    public static class SettingsSave extends Event {
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+/**
+ * TreeItem which creates its children on first access, for building very large trees.
+ * Each item below the specified depth has the specified number of children.
+ */
+public class LazyTreeItem<T> extends TreeItem<T> {
+    private final Supplier<T> generator;
+    private final int depth;
+    private final int breadth;
+    private boolean loaded;
+
+    /**
+     * @param generator creates the item values
+     * @param depth the number of levels below this item, 0 for a leaf
+     * @param breadth the number of children of each non-leaf item
+     */
+    public LazyTreeItem(Supplier<T> generator, int depth, int breadth) {
+        super(generator.get());
+        this.generator = generator;
+        this.depth = depth;
+        this.breadth = breadth;
+    }
+
+    public int getBreadth() {
+        return breadth;
+    }
+
+    /** returns true when the children have been created */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return depth == 0;
+    }
+
+    @Override
+    public ObservableList<TreeItem<T>> getChildren() {
+        if (!loaded) {
+            loaded = true;
+            if (depth > 0) {
+                ArrayList<TreeItem<T>> cs = new ArrayList<>(breadth);
+                for (int i = 0; i < breadth; i++) {
+                    cs.add(new LazyTreeItem<>(generator, depth - 1, breadth));
+                }
+                super.getChildren().setAll(cs);
+            }
+        }
+        return super.getChildren();
+    }
+}
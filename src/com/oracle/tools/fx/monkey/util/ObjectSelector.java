@@ -36,12 +36,19 @@ public class ObjectSelector<T> extends ComboBox<NamedValue<T>> {
         FX.name(this, name);
 
         getSelectionModel().selectedItemProperty().addListener((s, pr, c) -> {
+            UserActivity.action("option " + name + "=" + c);
+            SessionRecorder.option(this, getSelectionModel().getSelectedIndex());
+            JfrEvents.OptionChange ev = new JfrEvents.OptionChange();
+            ev.begin();
             T v = c.getValue();
             try {
                 client.accept(v);
             } catch (Throwable e) {
                 e.printStackTrace();
             }
+            ev.option = name;
+            ev.value = String.valueOf(c);
+            ev.commit();
         });
     }
 
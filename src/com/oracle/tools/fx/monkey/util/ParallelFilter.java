@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import javafx.application.Platform;
+
+/**
+ * Incremental substring filter which evaluates the predicate in parallel chunks off the FX application thread.
+ *
+ * The searchable text of each item is extracted once per source.  The text which depends on the item only
+ * (for example, the values generated from the row id) is extracted on the fork-join pool, the rest on the
+ * FX application thread (the cell values are not thread safe); the matching is done on the fork-join pool.
+ * When the new query contains the last published query, only the currently published items are evaluated
+ * (the result can only narrow), preserving their order.  Otherwise, all the source items are evaluated and
+ * the result is sorted with the supplied comparator, if any, on the FX application thread just before publishing
+ * (the comparator reads the cell values, which may even be created for the sort columns that are not visible).
+ * A filter request supersedes the one in progress: the chunks of a stale request are skipped and its result
+ * is never published.
+ */
+public class ParallelFilter<T> {
+    private static final int CHUNK = 16_384;
+    private final Supplier<Function<T, String>> fxText;
+    private final Supplier<Function<T, String>> text;
+    private final Consumer<String> reporter;
+    private List<T> source = List.of();
+    private CompletableFuture<Index<T>> index;
+    private String lastQuery;
+    private volatile int generation;
+
+    /** the lowercase searchable text of each source item, and the position of each item in the source */
+    private record Index<T>(String[] texts, IdentityHashMap<T, Integer> indexes, long fxTime, long time) { }
+
+    private record Result<T>(List<T> items, long start, long end) { }
+
+    /**
+     * The extractor suppliers are called in the FX application thread each time the text is extracted,
+     * and may return null when there is nothing to extract.
+     * @param fxText supplies the function which extracts the text which must be extracted in the FX application thread
+     * @param text supplies the function which extracts the text in any thread
+     * @param reporter receives the timing report in the FX application thread
+     */
+    public ParallelFilter(Supplier<Function<T, String>> fxText, Supplier<Function<T, String>> text, Consumer<String> reporter) {
+        this.fxText = fxText;
+        this.text = text;
+        this.reporter = reporter;
+    }
+
+    /** sets the items to be filtered, the next query is evaluated against all of them */
+    public void setSource(List<T> items) {
+        source = new ArrayList<>(items);
+        invalidate();
+    }
+
+    /** discards the extracted text (for example, when the columns change) */
+    public void invalidate() {
+        generation++;
+        index = null;
+        lastQuery = null;
+    }
+
+    /** cancels the filter in progress, if any */
+    public void cancel() {
+        generation++;
+    }
+
+    /**
+     * Filters the source items.
+     * @param query the query, matched as a case-insensitive substring
+     * @param current the currently published items, narrowed when the query extends the last one
+     * @param order the order of the result when not narrowing, or null for the source order
+     * @param publisher receives the result in the FX application thread
+     */
+    public void filter(String query, List<T> current, Comparator<? super T> order, Consumer<List<T>> publisher) {
+        long t0 = System.nanoTime();
+        int gen = ++generation;
+        String q = (query == null) ? "" : query.toLowerCase(Locale.ROOT);
+
+        boolean indexing = (index == null);
+        if (indexing) {
+            index = createIndex();
+        }
+        CompletableFuture<Index<T>> idx = index;
+        List<T> src = source;
+
+        boolean narrowing = (lastQuery != null) && q.contains(lastQuery);
+        Object[] candidates = narrowing ? current.toArray() : null;
+
+        idx.thenApplyAsync((in) -> {
+            long t1 = System.nanoTime();
+            String[] txt = in.texts();
+            int[] base = narrowing ? toIndexes(candidates, in.indexes()) : null;
+            int size = (base == null) ? txt.length : base.length;
+            int chunks = (size + CHUNK - 1) / CHUNK;
+            int[][] parts = new int[chunks][];
+            IntStream.range(0, chunks).parallel().forEach((c) -> {
+                if (gen != generation) {
+                    return;
+                }
+                int start = c * CHUNK;
+                int end = Math.min(size, start + CHUNK);
+                int[] rv = new int[end - start];
+                int n = 0;
+                for (int i = start; i < end; i++) {
+                    int ix = (base == null) ? i : base[i];
+                    if (txt[ix].contains(q)) {
+                        rv[n++] = ix;
+                    }
+                }
+                parts[c] = Arrays.copyOf(rv, n);
+            });
+            if (gen != generation) {
+                return null;
+            }
+
+            int total = 0;
+            for (int[] p: parts) {
+                total += p.length;
+            }
+            ArrayList<T> result = new ArrayList<>(total);
+            for (int[] p: parts) {
+                for (int ix: p) {
+                    result.add(src.get(ix));
+                }
+            }
+            return new Result<>(result, t1, System.nanoTime());
+        }, ForkJoinPool.commonPool()).whenComplete((res, err) -> {
+            Platform.runLater(() -> {
+                if (err != null) {
+                    err.printStackTrace();
+                    reporter.accept("failed: " + err);
+                    if (index == idx) {
+                        index = null;
+                    }
+                } else if ((res != null) && (gen == generation)) {
+                    long t2 = System.nanoTime();
+                    if (!narrowing && (order != null)) {
+                        res.items().sort(order);
+                    }
+                    long t3 = System.nanoTime();
+                    publisher.accept(res.items());
+                    lastQuery = q;
+                    long t4 = System.nanoTime();
+                    Index<T> in = idx.join();
+                    String indexed = indexing ?
+                        String.format("index %s (FX thread %s)", ms(in.time()), ms(in.fxTime())) :
+                        "indexed";
+                    reporter.accept(String.format(
+                        "%,d of %,d rows: %s, filter %s%s, sort %s, publish %s, latency %s",
+                        res.items().size(), src.size(), indexed, ms(res.end() - res.start()),
+                        narrowing ? " (narrowed)" : "", ms(t3 - t2), ms(t4 - t3), ms(t4 - t0)
+                    ));
+                }
+            });
+        });
+    }
+
+    /**
+     * Extracts the text which requires the FX application thread, then the rest of the text
+     * and the positions of the items in the fork-join pool.
+     */
+    private CompletableFuture<Index<T>> createIndex() {
+        long start = System.nanoTime();
+        List<T> src = source;
+        int sz = src.size();
+        Function<T, String> fx = fxText.get();
+        String[] fxTexts;
+        if (fx == null) {
+            fxTexts = null;
+        } else {
+            fxTexts = new String[sz];
+            for (int i = 0; i < sz; i++) {
+                fxTexts[i] = fx.apply(src.get(i));
+            }
+        }
+        Function<T, String> any = text.get();
+        long fxTime = System.nanoTime() - start;
+
+        return CompletableFuture.supplyAsync(() -> {
+            long t = System.nanoTime();
+            String[] texts = new String[sz];
+            IntStream.range(0, sz).parallel().forEach((i) -> {
+                String a = (fxTexts == null) ? null : fxTexts[i];
+                String b = (any == null) ? null : any.apply(src.get(i));
+                String s = (a == null) ? b : (b == null) ? a : (a + b);
+                texts[i] = (s == null) ? "" : s.toLowerCase(Locale.ROOT);
+            });
+
+            IdentityHashMap<T, Integer> indexes = new IdentityHashMap<>(sz);
+            for (int i = 0; i < sz; i++) {
+                indexes.put(src.get(i), i);
+            }
+            return new Index<>(texts, indexes, fxTime, System.nanoTime() - t);
+        }, ForkJoinPool.commonPool());
+    }
+
+    private static <T> int[] toIndexes(Object[] items, IdentityHashMap<T, Integer> indexes) {
+        int[] rv = new int[items.length];
+        int n = 0;
+        for (Object x: items) {
+            Integer ix = indexes.get(x);
+            if (ix != null) {
+                rv[n++] = ix;
+            }
+        }
+        return (n == rv.length) ? rv : Arrays.copyOf(rv, n);
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.1f ms", nanos / 1_000_000.0);
+    }
+}
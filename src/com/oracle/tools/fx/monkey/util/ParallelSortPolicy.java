@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Callback;
+
+/**
+ * TableView sort policy which sorts in the background, keeping the FX application thread responsive.
+ *
+ * The sort keys are extracted on the FX application thread (the cell values are not thread safe),
+ * then the snapshot is sorted on the fork-join pool with a comparator built from the table's sort order,
+ * and the result is published with a single {@code setAll()}.
+ * A result is discarded when the sort order or the items have changed in the meantime.
+ * When cancellable, the sort is also aborted as soon as that happens, rather than running to completion.
+ */
+public class ParallelSortPolicy<S> implements Callback<TableView<S>, Boolean> {
+    private final boolean cancellable;
+    private final Consumer<String> reporter;
+    /** incremented on each sort request and items change, a sort is stale when it does not match */
+    private volatile int generation;
+    private boolean publishing;
+    private ObservableList<S> observedItems;
+    private final InvalidationListener itemsListener = (x) -> {
+        if (!publishing) {
+            generation++;
+        }
+    };
+
+    private record Entry<S>(S item, Object[] keys) { }
+
+    /**
+     * @param cancellable when true, aborts the sort in progress when the sort order changes
+     * @param reporter receives the timing report in the FX application thread
+     */
+    public ParallelSortPolicy(boolean cancellable, Consumer<String> reporter) {
+        this.cancellable = cancellable;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public Boolean call(TableView<S> table) {
+        ObservableList<S> items = table.getItems();
+        observe(items);
+        int gen = ++generation;
+        if (items == null) {
+            return Boolean.TRUE;
+        }
+
+        ArrayList<TableColumn<S, ?>> columns = new ArrayList<>();
+        for (TableColumn<S, ?> c: table.getSortOrder()) {
+            if (c.isSortable()) {
+                columns.add(c);
+            }
+        }
+        if (columns.isEmpty()) {
+            return Boolean.TRUE;
+        }
+
+        long t0 = System.nanoTime();
+        int size = items.size();
+        int ncols = columns.size();
+        @SuppressWarnings("unchecked")
+        Entry<S>[] entries = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            S item = items.get(i);
+            Object[] keys = new Object[ncols];
+            for (int j = 0; j < ncols; j++) {
+                keys[j] = columns.get(j).getCellData(item);
+            }
+            entries[i] = new Entry<>(item, keys);
+        }
+        Comparator<Entry<S>> cmp = createComparator(columns, gen);
+        long t1 = System.nanoTime();
+
+        CompletableFuture.supplyAsync(() -> {
+            Arrays.parallelSort(entries, cmp);
+            ArrayList<S> sorted = new ArrayList<>(size);
+            for (Entry<S> en: entries) {
+                sorted.add(en.item());
+            }
+            return sorted;
+        }, ForkJoinPool.commonPool()).whenComplete((sorted, err) -> {
+            long t2 = System.nanoTime();
+            Platform.runLater(() -> {
+                if (err != null) {
+                    if (isCancellation(err)) {
+                        report(size, "cancelled after " + ms(t2 - t0));
+                    } else {
+                        err.printStackTrace();
+                        report(size, "failed: " + err);
+                    }
+                } else if (gen != generation) {
+                    report(size, "discarded (stale) after " + ms(t2 - t0));
+                } else {
+                    publish(items, sorted);
+                    long t3 = System.nanoTime();
+                    report(size, String.format(
+                        "snapshot %s, sort %s, publish %s, total %s",
+                        ms(t1 - t0), ms(t2 - t1), ms(t3 - t2), ms(t3 - t0)
+                    ));
+                }
+            });
+        });
+        return Boolean.TRUE;
+    }
+
+    private void observe(ObservableList<S> items) {
+        if (observedItems != items) {
+            if (observedItems != null) {
+                observedItems.removeListener(itemsListener);
+            }
+            observedItems = items;
+            if (items != null) {
+                items.addListener(itemsListener);
+            }
+        }
+    }
+
+    private void publish(ObservableList<S> items, List<S> sorted) {
+        publishing = true;
+        try {
+            items.setAll(sorted);
+        } finally {
+            publishing = false;
+        }
+    }
+
+    private Comparator<Entry<S>> createComparator(List<TableColumn<S, ?>> columns, int gen) {
+        int ncols = columns.size();
+        @SuppressWarnings("unchecked")
+        Comparator<Object>[] cs = new Comparator[ncols];
+        for (int i = 0; i < ncols; i++) {
+            TableColumn<S, ?> c = columns.get(i);
+            Comparator<Object> cmp = (Comparator<Object>)c.getComparator();
+            if (cmp == null) {
+                cmp = TableColumn.DEFAULT_COMPARATOR;
+            }
+            cs[i] = (c.getSortType() == TableColumn.SortType.DESCENDING) ? cmp.reversed() : cmp;
+        }
+
+        return (a, b) -> {
+            if (cancellable && (gen != generation)) {
+                throw new CancellationException();
+            }
+            for (int i = 0; i < ncols; i++) {
+                int rv = cs[i].compare(a.keys()[i], b.keys()[i]);
+                if (rv != 0) {
+                    return rv;
+                }
+            }
+            return 0;
+        };
+    }
+
+    private static boolean isCancellation(Throwable e) {
+        while (e != null) {
+            if (e instanceof CancellationException) {
+                return true;
+            }
+            e = e.getCause();
+        }
+        return false;
+    }
+
+    private void report(int size, String text) {
+        reporter.accept(String.format("%,d rows: %s", size, text));
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.1f ms", nanos / 1_000_000.0);
+    }
+}
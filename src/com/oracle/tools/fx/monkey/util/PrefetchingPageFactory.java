@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import javafx.scene.Node;
+import javafx.util.Callback;
+
+/**
+ * Pagination page factory which builds the pages adjacent to the current one
+ * (up to the specified distance) in the background, so the page flips do not have to wait
+ * for the page generation.
+ *
+ * The page generator must not access the scene graph, since it is invoked in the background threads.
+ * A prefetched page is handed out once; the pages outside of the prefetch range are dropped.
+ * When the requested page is being built in the background, the factory waits for it rather than
+ * generating it a second time; when it is still queued, the task is cancelled and the page is generated
+ * right away.
+ */
+public class PrefetchingPageFactory implements Callback<Integer, Node> {
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2, (r) -> {
+        Thread t = new Thread(r, "PagePrefetch");
+        t.setDaemon(true);
+        return t;
+    });
+    private final IntFunction<Node> generator;
+    private final IntSupplier pageCount;
+    private final int distance;
+    private final LinkedHashMap<Integer, Prefetch> pages = new LinkedHashMap<>();
+    private long hits;
+    private long waits;
+    private long misses;
+
+    /** the page is generated by whoever sets the claimed flag first: the background task or the FX thread */
+    private record Prefetch(CompletableFuture<Node> future, AtomicBoolean claimed) {
+        /** prevents the task from generating the page, returns false if it has already started */
+        public boolean cancel() {
+            boolean queued = claimed.compareAndSet(false, true);
+            if (queued) {
+                future.cancel(false);
+            }
+            return queued;
+        }
+    }
+
+    /**
+     * @param generator generates the page for the given index, in any thread
+     * @param pageCount supplies the current page count
+     * @param distance the number of pages to prefetch before and after the current page
+     */
+    public PrefetchingPageFactory(IntFunction<Node> generator, IntSupplier pageCount, int distance) {
+        this.generator = generator;
+        this.pageCount = pageCount;
+        this.distance = distance;
+    }
+
+    @Override
+    public Node call(Integer index) {
+        int ix = index;
+        Node n = null;
+        Prefetch p = pages.remove(ix);
+        if (p == null) {
+            misses++;
+        } else if (p.future().isDone()) {
+            n = join(p.future());
+            if (n == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+        } else if (p.cancel()) {
+            // still queued behind other pages
+            misses++;
+        } else {
+            // being built: waiting is cheaper than building it again
+            n = join(p.future());
+            if (n == null) {
+                misses++;
+            } else {
+                waits++;
+            }
+        }
+
+        if (n == null) {
+            n = generator.apply(ix);
+        }
+
+        prefetch(ix);
+        return n;
+    }
+
+    /** waits for the prefetched page, returns null if the generation failed */
+    private static Node join(CompletableFuture<Node> f) {
+        try {
+            return f.join();
+        } catch (CompletionException | CancellationException e) {
+            // reported by the exceptionally() handler
+            return null;
+        }
+    }
+
+    private void prefetch(int ix) {
+        long min = Math.max(0L, (long)ix - distance);
+        long max = Math.min((long)pageCount.getAsInt() - 1, (long)ix + distance);
+
+        // drop the pages outside of the range
+        Iterator<Map.Entry<Integer, Prefetch>> it = pages.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Prefetch> en = it.next();
+            int k = en.getKey();
+            if ((k < min) || (k > max)) {
+                en.getValue().cancel();
+                it.remove();
+            }
+        }
+
+        // nearest pages first
+        for (int d = 1; d <= distance; d++) {
+            schedule((long)ix + d, min, max);
+            schedule((long)ix - d, min, max);
+        }
+    }
+
+    private void schedule(long page, long min, long max) {
+        if ((page < min) || (page > max)) {
+            return;
+        }
+
+        int ix = (int)page;
+        if (!pages.containsKey(ix)) {
+            AtomicBoolean claimed = new AtomicBoolean();
+            CompletableFuture<Node> f = CompletableFuture.supplyAsync(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    // cancelled while queued
+                    return null;
+                }
+                return generator.apply(ix);
+            }, executor);
+            f.exceptionally((e) -> {
+                if (!(e instanceof CancellationException)) {
+                    e.printStackTrace();
+                }
+                return null;
+            });
+            pages.put(ix, new Prefetch(f, claimed));
+        }
+    }
+
+    public String getStats() {
+        int ready = 0;
+        for (Prefetch p: pages.values()) {
+            if (p.future().isDone()) {
+                ready++;
+            }
+        }
+        return String.format("prefetched: %d of %d, hits: %,d, waited: %,d, misses: %,d", ready, pages.size(), hits, waits, misses);
+    }
+}
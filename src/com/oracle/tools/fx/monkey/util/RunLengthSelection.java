@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Selection state backed by a run-length encoded set of indices, for the selection models
+ * of the controls with a very large number of items.
+ *
+ * The selection is kept as an immutable sorted array of disjoint [start, end) runs, so selecting
+ * a range, selecting all, or inverting the selection takes time proportional to the number of runs
+ * rather than the number of selected items.  Each operation fires at most one list change,
+ * which replaces the whole list of the selected indices.
+ *
+ * The selection is cleared when the items change (the indices are not shifted).
+ */
+public class RunLengthSelection {
+    private final IntSupplier itemCount;
+    private final BooleanSupplier multiple;
+    private final IntConsumer onSelect;
+    private final IndexList indices = new IndexList();
+    private Runs runs = Runs.EMPTY;
+    private int lead = -1;
+
+    /**
+     * @param itemCount supplies the number of items
+     * @param multiple returns true when in the multiple selection mode
+     * @param onSelect notified when the lead (most recently selected) index changes, -1 when none
+     */
+    public RunLengthSelection(IntSupplier itemCount, BooleanSupplier multiple, IntConsumer onSelect) {
+        this.itemCount = itemCount;
+        this.multiple = multiple;
+        this.onSelect = onSelect;
+    }
+
+    /** returns the observable list of the selected indices, in ascending order */
+    public ObservableList<Integer> getIndices() {
+        return indices;
+    }
+
+    /** returns the observable view of the selected indices, mapped by the specified function */
+    public <T> ObservableList<T> map(IntFunction<T> f) {
+        return new MappedList<>(f);
+    }
+
+    public int getLead() {
+        return lead;
+    }
+
+    public boolean isSelected(int ix) {
+        return runs.contains(ix);
+    }
+
+    public boolean isEmpty() {
+        return runs.size == 0;
+    }
+
+    public int size() {
+        return runs.size;
+    }
+
+    public void select(int ix) {
+        if (isValid(ix)) {
+            if (multiple.getAsBoolean()) {
+                update(runs.add(ix, ix + 1), ix);
+            } else {
+                update(Runs.of(ix, ix + 1), ix);
+            }
+        }
+    }
+
+    public void clearAndSelect(int ix) {
+        if (isValid(ix)) {
+            update(Runs.of(ix, ix + 1), ix);
+        }
+    }
+
+    public void clearSelection(int ix) {
+        if (isValid(ix)) {
+            Runs rs = runs.remove(ix, ix + 1);
+            update(rs, (lead == ix) ? rs.last() : lead);
+        }
+    }
+
+    public void clearSelection() {
+        update(Runs.EMPTY, -1);
+    }
+
+    /**
+     * Selects the range with the same semantics as {@code MultipleSelectionModel.selectRange()}:
+     * [start, end) when start < end, or (end, start] otherwise.
+     */
+    public void selectRange(int start, int end) {
+        if (start == end) {
+            return;
+        }
+
+        int count = itemCount.getAsInt();
+        int from;
+        int to;
+        int last;
+        if (start < end) {
+            from = start;
+            to = end;
+            last = end - 1;
+        } else {
+            from = end + 1;
+            to = start + 1;
+            last = end + 1;
+        }
+        from = Math.max(0, from);
+        to = Math.min(count, to);
+        if (from >= to) {
+            return;
+        }
+        last = Math.max(from, Math.min(to - 1, last));
+
+        if (multiple.getAsBoolean()) {
+            update(runs.add(from, to), last);
+        } else {
+            update(Runs.of(last, last + 1), last);
+        }
+    }
+
+    public void selectIndices(int index, int... more) {
+        if (!multiple.getAsBoolean()) {
+            int last = (more == null || more.length == 0) ? index : more[more.length - 1];
+            select(last);
+            return;
+        }
+
+        int count = itemCount.getAsInt();
+        int n = (more == null) ? 0 : more.length;
+        int[] ixs = new int[n + 1];
+        ixs[0] = index;
+        if (n > 0) {
+            System.arraycopy(more, 0, ixs, 1, n);
+        }
+        int last = ixs[n];
+        Arrays.sort(ixs);
+
+        Runs.Builder b = new Runs.Builder();
+        for (int ix: ixs) {
+            if ((ix >= 0) && (ix < count)) {
+                b.add(ix, ix + 1);
+            }
+        }
+        Runs rs = Runs.union(runs, b.build());
+        update(rs, rs.contains(last) ? last : lead);
+    }
+
+    public void selectAll() {
+        int count = itemCount.getAsInt();
+        if (multiple.getAsBoolean() && (count > 0)) {
+            update(Runs.of(0, count), count - 1);
+        }
+    }
+
+    /** selects all the items which are not selected, and deselects all the selected items */
+    public void invert() {
+        if (multiple.getAsBoolean()) {
+            Runs rs = runs.complement(itemCount.getAsInt());
+            update(rs, rs.contains(lead) ? lead : rs.last());
+        }
+    }
+
+    public void selectPrevious() {
+        if (lead < 0) {
+            selectLast();
+        } else if (lead > 0) {
+            clearAndSelect(lead - 1);
+        }
+    }
+
+    public void selectNext() {
+        if (lead < 0) {
+            selectFirst();
+        } else if (lead < itemCount.getAsInt() - 1) {
+            clearAndSelect(lead + 1);
+        }
+    }
+
+    public void selectFirst() {
+        if (itemCount.getAsInt() > 0) {
+            clearAndSelect(0);
+        }
+    }
+
+    public void selectLast() {
+        int count = itemCount.getAsInt();
+        if (count > 0) {
+            clearAndSelect(count - 1);
+        }
+    }
+
+    private boolean isValid(int ix) {
+        return (ix >= 0) && (ix < itemCount.getAsInt());
+    }
+
+    private void update(Runs rs, int newLead) {
+        Runs old = runs;
+        runs = rs;
+        if (!old.equals(rs)) {
+            indices.fire(old);
+        }
+        lead = newLead;
+        // the selected index is set after the indices change, as in the default models
+        onSelect.accept(lead);
+    }
+
+    /** immutable sorted disjoint [start, end) runs */
+    private static class Runs {
+        public static final Runs EMPTY = new Runs(new int[0], new int[0], 0);
+        private final int[] starts;
+        private final int[] ends;
+        private final int count;
+        /** the number of indices in the runs preceding each run */
+        private final int[] offsets;
+        public final int size;
+
+        private Runs(int[] starts, int[] ends, int count) {
+            this.starts = starts;
+            this.ends = ends;
+            this.count = count;
+            this.offsets = new int[count];
+            int sz = 0;
+            for (int i = 0; i < count; i++) {
+                offsets[i] = sz;
+                sz += (ends[i] - starts[i]);
+            }
+            this.size = sz;
+        }
+
+        public static Runs of(int start, int end) {
+            return new Runs(new int[] { start }, new int[] { end }, 1);
+        }
+
+        /** returns the index of the run containing the index, or -1 */
+        private int find(int ix) {
+            int lo = 0;
+            int hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (ends[mid] <= ix) {
+                    lo = mid + 1;
+                } else if (starts[mid] > ix) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        public boolean contains(int ix) {
+            return find(ix) >= 0;
+        }
+
+        /** returns the selected index at the specified position */
+        public int get(int pos) {
+            if ((pos < 0) || (pos >= size)) {
+                throw new IndexOutOfBoundsException(pos);
+            }
+            int lo = 0;
+            int hi = count - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (offsets[mid] <= pos) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return starts[lo] + (pos - offsets[lo]);
+        }
+
+        /** returns the position of the selected index, or -1 */
+        public int indexOf(int ix) {
+            int r = find(ix);
+            return (r < 0) ? -1 : offsets[r] + (ix - starts[r]);
+        }
+
+        public int last() {
+            return (count == 0) ? -1 : ends[count - 1] - 1;
+        }
+
+        public Runs add(int start, int end) {
+            return union(this, of(start, end));
+        }
+
+        public Runs remove(int start, int end) {
+            Builder b = new Builder();
+            for (int i = 0; i < count; i++) {
+                int s = starts[i];
+                int e = ends[i];
+                if ((e <= start) || (s >= end)) {
+                    b.add(s, e);
+                } else {
+                    if (s < start) {
+                        b.add(s, start);
+                    }
+                    if (e > end) {
+                        b.add(end, e);
+                    }
+                }
+            }
+            return b.build();
+        }
+
+        public Runs complement(int itemCount) {
+            Builder b = new Builder();
+            int pos = 0;
+            for (int i = 0; i < count; i++) {
+                if (starts[i] > pos) {
+                    b.add(pos, Math.min(starts[i], itemCount));
+                }
+                pos = ends[i];
+            }
+            if (pos < itemCount) {
+                b.add(pos, itemCount);
+            }
+            return b.build();
+        }
+
+        public static Runs union(Runs a, Runs b) {
+            Builder rv = new Builder();
+            int i = 0;
+            int j = 0;
+            while ((i < a.count) || (j < b.count)) {
+                if ((j >= b.count) || ((i < a.count) && (a.starts[i] <= b.starts[j]))) {
+                    rv.add(a.starts[i], a.ends[i]);
+                    i++;
+                } else {
+                    rv.add(b.starts[j], b.ends[j]);
+                    j++;
+                }
+            }
+            return rv.build();
+        }
+
+        @Override
+        public boolean equals(Object x) {
+            if (x == this) {
+                return true;
+            } else if (x instanceof Runs r) {
+                return (count == r.count) &&
+                    Arrays.equals(starts, 0, count, r.starts, 0, count) &&
+                    Arrays.equals(ends, 0, count, r.ends, 0, count);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return size;
+        }
+
+        /** accumulates the runs added in the ascending order of their starts, merging the overlapping runs */
+        public static class Builder {
+            private int[] starts = new int[8];
+            private int[] ends = new int[8];
+            private int count;
+
+            public void add(int start, int end) {
+                if (start >= end) {
+                    return;
+                }
+
+                if ((count > 0) && (start <= ends[count - 1])) {
+                    ends[count - 1] = Math.max(ends[count - 1], end);
+                    return;
+                }
+
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                starts[count] = start;
+                ends[count] = end;
+                count++;
+            }
+
+            public Runs build() {
+                return (count == 0) ? EMPTY : new Runs(starts, ends, count);
+            }
+        }
+    }
+
+    /** the list of the selected indices in the given runs, for reporting the removed elements */
+    private static class RunsView extends AbstractList<Integer> {
+        private final Runs runs;
+
+        public RunsView(Runs runs) {
+            this.runs = runs;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return runs.get(index);
+        }
+
+        @Override
+        public int size() {
+            return runs.size;
+        }
+    }
+
+    private class IndexList extends ObservableListBase<Integer> {
+        @Override
+        public Integer get(int index) {
+            return runs.get(index);
+        }
+
+        @Override
+        public int size() {
+            return runs.size;
+        }
+
+        @Override
+        public int indexOf(Object x) {
+            return (x instanceof Integer ix) ? runs.indexOf(ix) : -1;
+        }
+
+        @Override
+        public boolean contains(Object x) {
+            return (x instanceof Integer ix) && runs.contains(ix);
+        }
+
+        public void fire(Runs old) {
+            beginChange();
+            if (old.size > 0) {
+                nextRemove(0, new RunsView(old));
+            }
+            if (runs.size > 0) {
+                nextAdd(0, runs.size);
+            }
+            endChange();
+        }
+    }
+
+    private class MappedList<T> extends ObservableListBase<T> {
+        private final IntFunction<T> mapper;
+
+        public MappedList(IntFunction<T> mapper) {
+            this.mapper = mapper;
+            indices.addListener((ListChangeListener.Change<? extends Integer> ch) -> {
+                beginChange();
+                while (ch.next()) {
+                    if (ch.wasRemoved()) {
+                        List<? extends Integer> removed = ch.getRemoved();
+                        nextRemove(ch.getFrom(), new AbstractList<T>() {
+                            @Override
+                            public T get(int index) {
+                                return mapper.apply(removed.get(index));
+                            }
+
+                            @Override
+                            public int size() {
+                                return removed.size();
+                            }
+                        });
+                    }
+                    if (ch.wasAdded()) {
+                        nextAdd(ch.getFrom(), ch.getTo());
+                    }
+                }
+                endChange();
+            });
+        }
+
+        @Override
+        public T get(int index) {
+            return mapper.apply(runs.get(index));
+        }
+
+        @Override
+        public int size() {
+            return runs.size;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.List;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.WeakListChangeListener;
+import javafx.scene.control.FocusModel;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MultipleSelectionModel;
+import javafx.scene.control.SelectionMode;
+
+/**
+ * ListView selection model backed by the run-length encoded {@link RunLengthSelection}.
+ */
+public class RunLengthSelectionModel<T> extends MultipleSelectionModel<T> {
+    private final ListView<T> control;
+    private final RunLengthSelection selection;
+    private final ObservableList<T> selectedItems;
+    private final ListChangeListener<T> itemsListener = (ch) -> clearSelection();
+    private final WeakListChangeListener<T> weakItemsListener = new WeakListChangeListener<>(itemsListener);
+
+    public RunLengthSelectionModel(ListView<T> control) {
+        this.control = control;
+        selection = new RunLengthSelection(
+            this::getItemCount,
+            () -> getSelectionMode() == SelectionMode.MULTIPLE,
+            this::handleSelect
+        );
+        selectedItems = selection.map(this::getItem);
+
+        control.itemsProperty().addListener((s, p, c) -> {
+            if (p != null) {
+                p.removeListener(weakItemsListener);
+            }
+            if (c != null) {
+                c.addListener(weakItemsListener);
+            }
+            clearSelection();
+        });
+        if (control.getItems() != null) {
+            control.getItems().addListener(weakItemsListener);
+        }
+
+        selectionModeProperty().addListener((s, p, c) -> {
+            if ((c == SelectionMode.SINGLE) && (selection.size() > 1)) {
+                int ix = getSelectedIndex();
+                if (ix < 0) {
+                    clearSelection();
+                } else {
+                    clearAndSelect(ix);
+                }
+            }
+        });
+    }
+
+    /** selects all the items which are not selected, and deselects all the selected items */
+    public void invert() {
+        selection.invert();
+    }
+
+    private int getItemCount() {
+        List<T> items = control.getItems();
+        return (items == null) ? 0 : items.size();
+    }
+
+    private T getItem(int ix) {
+        List<T> items = control.getItems();
+        return (items == null) || (ix < 0) || (ix >= items.size()) ? null : items.get(ix);
+    }
+
+    private void handleSelect(int ix) {
+        setSelectedIndex(ix);
+        setSelectedItem(getItem(ix));
+        FocusModel<T> fm = control.getFocusModel();
+        if (fm != null) {
+            fm.focus(ix);
+        }
+    }
+
+    @Override
+    public ObservableList<Integer> getSelectedIndices() {
+        return selection.getIndices();
+    }
+
+    @Override
+    public ObservableList<T> getSelectedItems() {
+        return selectedItems;
+    }
+
+    @Override
+    public void selectIndices(int index, int... indices) {
+        selection.selectIndices(index, indices);
+    }
+
+    @Override
+    public void selectRange(int start, int end) {
+        selection.selectRange(start, end);
+    }
+
+    @Override
+    public void selectAll() {
+        selection.selectAll();
+    }
+
+    @Override
+    public void selectFirst() {
+        selection.selectFirst();
+    }
+
+    @Override
+    public void selectLast() {
+        selection.selectLast();
+    }
+
+    @Override
+    public void clearAndSelect(int index) {
+        selection.clearAndSelect(index);
+    }
+
+    @Override
+    public void select(int index) {
+        selection.select(index);
+    }
+
+    @Override
+    public void select(T item) {
+        if (item != null) {
+            List<T> items = control.getItems();
+            if (items != null) {
+                select(items.indexOf(item));
+            }
+        }
+    }
+
+    @Override
+    public void clearSelection(int index) {
+        selection.clearSelection(index);
+    }
+
+    @Override
+    public void clearSelection() {
+        selection.clearSelection();
+    }
+
+    @Override
+    public boolean isSelected(int index) {
+        return selection.isSelected(index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return selection.isEmpty();
+    }
+
+    @Override
+    public void selectPrevious() {
+        selection.selectPrevious();
+    }
+
+    @Override
+    public void selectNext() {
+        selection.selectNext();
+    }
+}
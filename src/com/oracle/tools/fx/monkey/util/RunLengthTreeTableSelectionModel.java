@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import javafx.collections.ObservableList;
+import javafx.event.EventHandler;
+import javafx.event.WeakEventHandler;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTablePosition;
+import javafx.scene.control.TreeTableView;
+
+/**
+ * TreeTableView row selection model backed by the run-length encoded {@link RunLengthSelection}.
+ * The cell selection is not supported: the column arguments are ignored.
+ * The selection is cleared when the number of expanded items changes.
+ */
+public class RunLengthTreeTableSelectionModel<S> extends TreeTableView.TreeTableViewSelectionModel<S> {
+    private final RunLengthSelection selection;
+    private final ObservableList<TreeItem<S>> selectedItems;
+    private final ObservableList<TreeTablePosition<S, ?>> selectedCells;
+    private final EventHandler<TreeItem.TreeModificationEvent<S>> expandedListener = (ev) -> clearSelection();
+    private final WeakEventHandler<TreeItem.TreeModificationEvent<S>> weakExpandedListener = new WeakEventHandler<>(expandedListener);
+
+    public RunLengthTreeTableSelectionModel(TreeTableView<S> tree) {
+        super(tree);
+        selection = new RunLengthSelection(
+            this::getItemCount,
+            () -> getSelectionMode() == SelectionMode.MULTIPLE,
+            this::handleSelect
+        );
+        selectedItems = selection.map(this::getModelItem);
+        selectedCells = selection.map((ix) -> new TreeTablePosition<>(tree, ix, null));
+
+        tree.rootProperty().addListener((s, p, c) -> {
+            if (p != null) {
+                p.removeEventHandler(TreeItem.expandedItemCountChangeEvent(), weakExpandedListener);
+            }
+            if (c != null) {
+                c.addEventHandler(TreeItem.expandedItemCountChangeEvent(), weakExpandedListener);
+            }
+            clearSelection();
+        });
+        if (tree.getRoot() != null) {
+            tree.getRoot().addEventHandler(TreeItem.expandedItemCountChangeEvent(), weakExpandedListener);
+        }
+
+        selectionModeProperty().addListener((s, p, c) -> {
+            if ((c == SelectionMode.SINGLE) && (selection.size() > 1)) {
+                int ix = getSelectedIndex();
+                if (ix < 0) {
+                    clearSelection();
+                } else {
+                    clearAndSelect(ix);
+                }
+            }
+        });
+    }
+
+    /** selects all the rows which are not selected, and deselects all the selected rows */
+    public void invert() {
+        selection.invert();
+    }
+
+    private void handleSelect(int ix) {
+        setSelectedIndex(ix);
+        setSelectedItem((ix < 0) ? null : getModelItem(ix));
+        focus(ix);
+    }
+
+    @Override
+    public ObservableList<TreeTablePosition<S, ?>> getSelectedCells() {
+        return selectedCells;
+    }
+
+    @Override
+    public ObservableList<Integer> getSelectedIndices() {
+        return selection.getIndices();
+    }
+
+    @Override
+    public ObservableList<TreeItem<S>> getSelectedItems() {
+        return selectedItems;
+    }
+
+    @Override
+    public boolean isSelected(int row, TableColumnBase<TreeItem<S>, ?> column) {
+        return selection.isSelected(row);
+    }
+
+    @Override
+    public void select(int row, TableColumnBase<TreeItem<S>, ?> column) {
+        selection.select(row);
+    }
+
+    @Override
+    public void clearAndSelect(int row, TableColumnBase<TreeItem<S>, ?> column) {
+        selection.clearAndSelect(row);
+    }
+
+    @Override
+    public void clearSelection(int row, TableColumnBase<TreeItem<S>, ?> column) {
+        selection.clearSelection(row);
+    }
+
+    @Override
+    public void selectRange(int minRow, TableColumnBase<TreeItem<S>, ?> minColumn, int maxRow, TableColumnBase<TreeItem<S>, ?> maxColumn) {
+        selection.selectRange(Math.min(minRow, maxRow), Math.max(minRow, maxRow) + 1);
+    }
+
+    @Override
+    public void selectLeftCell() {
+    }
+
+    @Override
+    public void selectRightCell() {
+    }
+
+    @Override
+    public void selectAboveCell() {
+        selection.selectPrevious();
+    }
+
+    @Override
+    public void selectBelowCell() {
+        selection.selectNext();
+    }
+
+    @Override
+    public void selectIndices(int index, int... indices) {
+        selection.selectIndices(index, indices);
+    }
+
+    @Override
+    public void selectRange(int start, int end) {
+        selection.selectRange(start, end);
+    }
+
+    @Override
+    public void selectAll() {
+        selection.selectAll();
+    }
+
+    @Override
+    public void selectFirst() {
+        selection.selectFirst();
+    }
+
+    @Override
+    public void selectLast() {
+        selection.selectLast();
+    }
+
+    @Override
+    public void clearAndSelect(int index) {
+        selection.clearAndSelect(index);
+    }
+
+    @Override
+    public void select(int index) {
+        selection.select(index);
+    }
+
+    @Override
+    public void select(TreeItem<S> item) {
+        if (item != null) {
+            select(getTreeTableView().getRow(item));
+        }
+    }
+
+    @Override
+    public void clearSelection(int index) {
+        selection.clearSelection(index);
+    }
+
+    @Override
+    public void clearSelection() {
+        selection.clearSelection();
+    }
+
+    @Override
+    public boolean isSelected(int index) {
+        return selection.isSelected(index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return selection.isEmpty();
+    }
+
+    @Override
+    public void selectPrevious() {
+        selection.selectPrevious();
+    }
+
+    @Override
+    public void selectNext() {
+        selection.selectNext();
+    }
+}
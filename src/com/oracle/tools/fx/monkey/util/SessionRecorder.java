@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.InputEvent;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import com.oracle.tools.fx.monkey.settings.FxSettingsSchema;
+
+/**
+ * Records user interaction with the test content of a page (mouse, keyboard and scroll events),
+ * together with the changes made through the options, as a list of steps which can be saved
+ * to a file and replayed later.
+ *
+ * The event targets are identified by the path of the closest named node, as computed by
+ * {@link FxSettingsSchema#computeName(Node)}, and the coordinates local to that node.
+ * All the calls are expected to happen in an FX application thread.
+ */
+public class SessionRecorder {
+    /** Recorded step: the time since the start of recording in microseconds, step type, node path, and arguments. */
+    public record Step(long time, char type, String path, double x, double y, String arg) {
+        @Override
+        public String toString() {
+            return switch (type) {
+            case KEY_PRESSED -> "key pressed " + arg;
+            case KEY_TYPED -> "key typed " + arg;
+            case KEY_RELEASED -> "key released " + arg;
+            case MOUSE_PRESSED -> "mouse pressed " + arg;
+            case MOUSE_RELEASED -> "mouse released " + arg;
+            case MOUSE_CLICKED -> "mouse clicked " + arg;
+            case MOUSE_DRAGGED -> "mouse dragged";
+            case SCROLL -> "scroll " + arg;
+            case OPTION -> "option #" + arg;
+            case BOOLEAN_OPTION -> "option " + arg;
+            default -> String.valueOf(type);
+            } + " " + path;
+        }
+    }
+
+    public static final char KEY_PRESSED = 'K';
+    public static final char KEY_TYPED = 'T';
+    public static final char KEY_RELEASED = 'U';
+    public static final char MOUSE_PRESSED = 'P';
+    public static final char MOUSE_RELEASED = 'R';
+    public static final char MOUSE_CLICKED = 'C';
+    public static final char MOUSE_DRAGGED = 'D';
+    public static final char SCROLL = 'S';
+    public static final char OPTION = 'O';
+    public static final char BOOLEAN_OPTION = 'B';
+    private static final String HEADER = "# MonkeyTester session v1";
+    private static final EventHandler<InputEvent> filter = SessionRecorder::handleEvent;
+    private static Scene scene;
+    private static Node content;
+    private static long start;
+    private static ArrayList<Step> steps;
+
+    /**
+     * Starts recording the user interaction with the specified content node.
+     */
+    public static void start(Node contentNode) {
+        stop();
+
+        content = contentNode;
+        scene = contentNode.getScene();
+        steps = new ArrayList<>();
+        start = System.nanoTime();
+        scene.addEventFilter(InputEvent.ANY, filter);
+    }
+
+    /**
+     * Stops recording.
+     * @return the recorded steps, or null if not recording
+     */
+    public static List<Step> stop() {
+        if (scene == null) {
+            return null;
+        }
+
+        scene.removeEventFilter(InputEvent.ANY, filter);
+        List<Step> rv = steps;
+        scene = null;
+        content = null;
+        steps = null;
+        return rv;
+    }
+
+    public static boolean isRecording() {
+        return scene != null;
+    }
+
+    /** returns the number of steps recorded so far */
+    public static int getStepCount() {
+        return (steps == null) ? 0 : steps.size();
+    }
+
+    /** records a change of the selected index in an option */
+    public static void option(Node option, int index) {
+        if (isRecording()) {
+            String path = FxSettingsSchema.computeName(option);
+            if (path != null) {
+                add(OPTION, path, 0, 0, String.valueOf(index));
+            }
+        }
+    }
+
+    /** records a change of a boolean option */
+    public static void option(Node option, boolean on) {
+        if (isRecording()) {
+            String path = FxSettingsSchema.computeName(option);
+            if (path != null) {
+                add(BOOLEAN_OPTION, path, 0, 0, String.valueOf(on));
+            }
+        }
+    }
+
+    private static void handleEvent(InputEvent ev) {
+        if (!(ev.getTarget() instanceof Node target) || !isInContent(target)) {
+            return;
+        }
+
+        EventType<?> t = ev.getEventType();
+        if (ev instanceof KeyEvent k) {
+            if (t == KeyEvent.KEY_PRESSED) {
+                addAt(KEY_PRESSED, target, 0, 0, k.getCode().name());
+            } else if (t == KeyEvent.KEY_TYPED) {
+                addAt(KEY_TYPED, target, 0, 0, k.getCharacter());
+            } else if (t == KeyEvent.KEY_RELEASED) {
+                addAt(KEY_RELEASED, target, 0, 0, k.getCode().name());
+            }
+        } else if (ev instanceof MouseEvent m) {
+            String arg = m.getButton() + " " + m.getClickCount();
+            if (t == MouseEvent.MOUSE_PRESSED) {
+                addAt(MOUSE_PRESSED, target, m.getSceneX(), m.getSceneY(), arg);
+            } else if (t == MouseEvent.MOUSE_RELEASED) {
+                addAt(MOUSE_RELEASED, target, m.getSceneX(), m.getSceneY(), arg);
+            } else if (t == MouseEvent.MOUSE_CLICKED) {
+                addAt(MOUSE_CLICKED, target, m.getSceneX(), m.getSceneY(), arg);
+            } else if (t == MouseEvent.MOUSE_DRAGGED) {
+                addAt(MOUSE_DRAGGED, target, m.getSceneX(), m.getSceneY(), arg);
+            }
+        } else if (ev instanceof ScrollEvent s) {
+            if (t == ScrollEvent.SCROLL) {
+                addAt(SCROLL, target, s.getSceneX(), s.getSceneY(), s.getDeltaX() + " " + s.getDeltaY());
+            }
+        }
+    }
+
+    private static boolean isInContent(Node n) {
+        for (; n != null; n = n.getParent()) {
+            if (n == content) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** records the step relative to the closest node with a name */
+    private static void addAt(char type, Node target, double sceneX, double sceneY, String arg) {
+        for (Node n = target; n != null; n = n.getParent()) {
+            if (FX.getName(n) != null) {
+                String path = FxSettingsSchema.computeName(n);
+                if (path != null) {
+                    Point2D p = n.sceneToLocal(sceneX, sceneY);
+                    add(type, path, p.getX(), p.getY(), arg);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void add(char type, String path, double x, double y, String arg) {
+        long t = (System.nanoTime() - start) / 1_000;
+        steps.add(new Step(t, type, path, x, y, arg));
+    }
+
+    /**
+     * Writes the steps to a file, one step per line, using tab-separated fields.
+     */
+    public static void save(List<Step> steps, File file) throws IOException {
+        try (BufferedWriter wr = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            wr.write(HEADER);
+            wr.write('\n');
+            for (Step s: steps) {
+                wr.write(String.valueOf(s.time()));
+                wr.write('\t');
+                wr.write(s.type());
+                wr.write('\t');
+                wr.write(s.path());
+                wr.write('\t');
+                wr.write(format(s.x()));
+                wr.write('\t');
+                wr.write(format(s.y()));
+                wr.write('\t');
+                wr.write(escape(s.arg()));
+                wr.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Reads the steps from a file written by {@link #save(List, File)}.
+     */
+    public static List<Step> load(File file) throws IOException {
+        ArrayList<Step> rv = new ArrayList<>();
+        try (BufferedReader rd = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = rd.readLine();
+            if (!HEADER.equals(line)) {
+                throw new IOException("not a session file: " + file);
+            }
+
+            while ((line = rd.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] ss = line.split("\t", -1);
+                if ((ss.length != 6) || (ss[1].length() != 1)) {
+                    throw new IOException("invalid step: " + line);
+                }
+
+                try {
+                    rv.add(new Step(
+                        Long.parseLong(ss[0]),
+                        ss[1].charAt(0),
+                        ss[2],
+                        Double.parseDouble(ss[3]),
+                        Double.parseDouble(ss[4]),
+                        unescape(ss[5])
+                    ));
+                } catch (NumberFormatException e) {
+                    throw new IOException("invalid step: " + line, e);
+                }
+            }
+        }
+        return rv;
+    }
+
+    private static String format(double v) {
+        long n = Math.round(v * 10);
+        return (n % 10 == 0) ? String.valueOf(n / 10) : String.valueOf(n / 10.0);
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c: s.toCharArray()) {
+            switch (c) {
+            case '\\' -> sb.append("\\\\");
+            case '\t' -> sb.append("\\t");
+            case '\n' -> sb.append("\\n");
+            case '\r' -> sb.append("\\r");
+            default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c == '\\') && (i + 1 < s.length())) {
+                c = s.charAt(++i);
+                switch (c) {
+                case 't' -> c = '\t';
+                case 'n' -> c = '\n';
+                case 'r' -> c = '\r';
+                }
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
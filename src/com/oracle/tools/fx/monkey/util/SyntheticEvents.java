@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.PickResult;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * Creates and dispatches synthesized input events.
+ */
+public class SyntheticEvents {
+    /**
+     * Fires a mouse event at the target, using the scene coordinates.
+     */
+    public static void mouse(Node target, EventType<MouseEvent> type, double sceneX, double sceneY, MouseButton button, int clickCount, boolean down) {
+        Point2D s = toScreen(target, sceneX, sceneY);
+        MouseEvent ev = new MouseEvent(
+            type, sceneX, sceneY, s.getX(), s.getY(),
+            button, clickCount,
+            false, false, false, false,
+            down && (button == MouseButton.PRIMARY),
+            down && (button == MouseButton.MIDDLE),
+            down && (button == MouseButton.SECONDARY),
+            false, false, true,
+            new PickResult(target, sceneX, sceneY)
+        );
+        Event.fireEvent(target, ev);
+    }
+
+    /**
+     * Fires a scroll event at the target, using the scene coordinates.
+     */
+    public static void scroll(Node target, double sceneX, double sceneY, double deltaX, double deltaY) {
+        Point2D s = toScreen(target, sceneX, sceneY);
+        ScrollEvent ev = new ScrollEvent(
+            ScrollEvent.SCROLL, sceneX, sceneY, s.getX(), s.getY(),
+            false, false, false, false, false, false,
+            deltaX, deltaY, deltaX, deltaY,
+            ScrollEvent.HorizontalTextScrollUnits.NONE, 0,
+            ScrollEvent.VerticalTextScrollUnits.NONE, 0,
+            0, new PickResult(target, sceneX, sceneY)
+        );
+        Event.fireEvent(target, ev);
+    }
+
+    /**
+     * Fires a key event at the target.
+     */
+    public static void key(Node target, EventType<KeyEvent> type, String character, KeyCode code) {
+        Event.fireEvent(target, new KeyEvent(type, character, "", code, false, false, false, false));
+    }
+
+    /**
+     * Returns the deepest visible, mouse-accessible node under the given scene point,
+     * starting with the specified node, or null.
+     */
+    public static Node pick(Node n, double sceneX, double sceneY) {
+        if (!n.isVisible() || n.isMouseTransparent() || n.isDisabled()) {
+            return null;
+        }
+
+        if (n instanceof Parent p) {
+            var children = p.getChildrenUnmodifiable();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                Node rv = pick(children.get(i), sceneX, sceneY);
+                if (rv != null) {
+                    return rv;
+                }
+            }
+        }
+
+        Point2D p = n.sceneToLocal(sceneX, sceneY);
+        if ((p != null) && n.contains(p)) {
+            return n;
+        }
+        return null;
+    }
+
+    private static Point2D toScreen(Node target, double sceneX, double sceneY) {
+        Point2D p = target.sceneToLocal(sceneX, sceneY);
+        Point2D s = (p == null) ? null : target.localToScreen(p);
+        return (s == null) ? new Point2D(sceneX, sceneY) : s;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.geometry.Bounds;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Region;
+
+/**
+ * Virtualized content for a ScrollPane, which can be much larger than the maximum texture size.
+ *
+ * The content is split into square tiles, only the tiles intersecting the viewport (as determined by
+ * the ScrollPane viewport bounds and the scroll bar values) are laid out.  The tile images are generated
+ * asynchronously in the background threads, and the tile nodes are recycled when they scroll out of view.
+ */
+public class TiledContent extends Region {
+    private static final int TILE_SIZE = 512;
+    private static final int MAX_CACHED_TILES = 64;
+    private static final int MAX_LATENCIES = 1000;
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+        (r) -> {
+            Thread t = new Thread(r, "TileGenerator");
+            t.setDaemon(true);
+            return t;
+        }
+    );
+    private final ScrollPane scrollPane;
+    private final double contentWidth;
+    private final double contentHeight;
+    private final ImageTools.Pattern pattern;
+    private final HashMap<Long, ImageView> tiles = new HashMap<>();
+    private final ArrayDeque<ImageView> pool = new ArrayDeque<>();
+    /** the tiles being generated */
+    private final Set<Long> wanted = ConcurrentHashMap.newKeySet();
+    /** the time when the tiles being generated were requested */
+    private final HashMap<Long, Long> requested = new HashMap<>();
+    private final InvalidationListener scrollListener = (x) -> requestLayout();
+    private final LinkedHashMap<Long, Image> cache = new LinkedHashMap<>(MAX_CACHED_TILES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Image> en) {
+            return size() > MAX_CACHED_TILES;
+        }
+    };
+    private final long[] latencies = new long[MAX_LATENCIES];
+    private int latencyCount;
+    private long generated;
+
+    public TiledContent(ScrollPane scrollPane, ImageTools.Pattern pattern, double width, double height) {
+        this.scrollPane = scrollPane;
+        this.pattern = pattern;
+        this.contentWidth = width;
+        this.contentHeight = height;
+
+        setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+
+        WeakInvalidationListener li = new WeakInvalidationListener(scrollListener);
+        scrollPane.viewportBoundsProperty().addListener(li);
+        scrollPane.hvalueProperty().addListener(li);
+        scrollPane.vvalueProperty().addListener(li);
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return contentWidth;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return contentHeight;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        if (scrollPane.getContent() != this) {
+            releaseAll();
+            return;
+        }
+
+        Bounds vb = scrollPane.getViewportBounds();
+        double w = getWidth();
+        double h = getHeight();
+        double x0 = offset(scrollPane.getHvalue(), scrollPane.getHmin(), scrollPane.getHmax(), w - vb.getWidth());
+        double y0 = offset(scrollPane.getVvalue(), scrollPane.getVmin(), scrollPane.getVmax(), h - vb.getHeight());
+        double x1 = Math.min(w, x0 + vb.getWidth());
+        double y1 = Math.min(h, y0 + vb.getHeight());
+
+        int c0 = (int)(x0 / TILE_SIZE);
+        int r0 = (int)(y0 / TILE_SIZE);
+        int c1 = (int)Math.ceil(x1 / TILE_SIZE);
+        int r1 = (int)Math.ceil(y1 / TILE_SIZE);
+
+        // recycle the tiles which are no longer visible
+        Iterator<Map.Entry<Long, ImageView>> it = tiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, ImageView> en = it.next();
+            int c = column(en.getKey());
+            int r = row(en.getKey());
+            if ((c < c0) || (c >= c1) || (r < r0) || (r >= r1)) {
+                it.remove();
+                release(en.getKey(), en.getValue());
+            }
+        }
+
+        for (int r = r0; r < r1; r++) {
+            for (int c = c0; c < c1; c++) {
+                long key = key(c, r);
+                if (!tiles.containsKey(key)) {
+                    ImageView v = obtain();
+                    v.relocate(c * TILE_SIZE, r * TILE_SIZE);
+                    tiles.put(key, v);
+                    Image im = cache.get(key);
+                    if (im == null) {
+                        generate(key);
+                    } else {
+                        v.setImage(im);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double offset(double value, double min, double max, double range) {
+        if ((range <= 0) || (max <= min)) {
+            return 0;
+        }
+        return (value - min) / (max - min) * range;
+    }
+
+    private ImageView obtain() {
+        ImageView v = pool.poll();
+        if (v == null) {
+            v = new ImageView();
+            v.setManaged(false);
+            getChildren().add(v);
+        }
+        v.setVisible(true);
+        return v;
+    }
+
+    private void release(long key, ImageView v) {
+        wanted.remove(key);
+        requested.remove(key);
+        v.setImage(null);
+        v.setVisible(false);
+        pool.add(v);
+    }
+
+    private void releaseAll() {
+        for (Map.Entry<Long, ImageView> en: tiles.entrySet()) {
+            release(en.getKey(), en.getValue());
+        }
+        tiles.clear();
+    }
+
+    private void generate(long key) {
+        if (!wanted.add(key)) {
+            return;
+        }
+
+        requested.put(key, System.nanoTime());
+        executor.submit(() -> {
+            if (!wanted.contains(key)) {
+                // scrolled out of view
+                return;
+            }
+
+            Image im = ImageTools.createImage(pattern, key, TILE_SIZE, TILE_SIZE);
+            Platform.runLater(() -> {
+                cache.put(key, im);
+                ImageView v = tiles.get(key);
+                Long t = requested.remove(key);
+                if (wanted.remove(key) && (v != null) && (t != null)) {
+                    v.setImage(im);
+                    generated++;
+                    latencies[latencyCount++ % MAX_LATENCIES] = System.nanoTime() - t;
+                }
+            });
+        });
+    }
+
+    private static long key(int column, int row) {
+        return ((long)row << 32) | column;
+    }
+
+    private static int column(long key) {
+        return (int)key;
+    }
+
+    private static int row(long key) {
+        return (int)(key >>> 32);
+    }
+
+    /** returns a description of the tile statistics */
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(
+            "Live tiles: %d\nPooled tiles: %d\nPending: %d\nGenerated: %,d",
+            tiles.size(),
+            pool.size(),
+            requested.size(),
+            generated
+        ));
+
+        int n = Math.min(latencyCount, MAX_LATENCIES);
+        if (n > 0) {
+            long[] ls = Arrays.copyOf(latencies, n);
+            Arrays.sort(ls);
+            sb.append(String.format(
+                "\nLatency (ms): p50=%.1f p90=%.1f max=%.1f",
+                ls[n / 2] / 1e6,
+                ls[(int)(n * 0.9)] / 1e6,
+                ls[n - 1] / 1e6
+            ));
+        }
+        return sb.toString();
+    }
+}
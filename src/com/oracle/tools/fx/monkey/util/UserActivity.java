@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javafx.collections.ListChangeListener;
+import javafx.event.EventTarget;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.stage.PopupWindow;
+import javafx.stage.Window;
+
+/**
+ * Keeps track of the currently shown page and the last user action,
+ * for the purposes of diagnostic tools.
+ * All the calls, except the getters, are expected to happen in an FX application thread.
+ */
+public class UserActivity {
+    private static final Object INSTALLED = new Object();
+    private static volatile String page;
+    private static volatile String lastAction;
+    private static final CopyOnWriteArrayList<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    /** call this in Application.start() */
+    public static void init() {
+        for (Window w: Window.getWindows()) {
+            install(w);
+        }
+
+        Window.getWindows().addListener((ListChangeListener.Change<? extends Window> ch) -> {
+            while (ch.next()) {
+                if (ch.wasAdded()) {
+                    for (Window w: ch.getAddedSubList()) {
+                        install(w);
+                    }
+                }
+            }
+        });
+    }
+
+    private static void install(Window w) {
+        if (w instanceof PopupWindow) {
+            return;
+        }
+
+        if (w.getProperties().put(INSTALLED, Boolean.TRUE) != null) {
+            return;
+        }
+
+        w.addEventFilter(KeyEvent.KEY_PRESSED, (ev) -> {
+            action("key pressed " + ev.getCode() + " in " + describe(ev.getTarget()));
+        });
+        w.addEventFilter(MouseEvent.MOUSE_PRESSED, (ev) -> {
+            action("mouse pressed in " + describe(ev.getTarget()));
+        });
+        w.addEventFilter(ScrollEvent.SCROLL, (ev) -> {
+            action("scroll in " + describe(ev.getTarget()));
+        });
+    }
+
+    /** records the page being shown */
+    public static void setPage(String name) {
+        page = name;
+        action("show page " + name);
+    }
+
+    /** returns the name of the page currently shown, or null */
+    public static String getPage() {
+        return page;
+    }
+
+    /** records the user action */
+    public static void action(String text) {
+        lastAction = text;
+        for (Consumer<String> li: listeners) {
+            li.accept(text);
+        }
+    }
+
+    /** adds a listener to be notified of each user action, in the FX application thread */
+    public static void addListener(Consumer<String> li) {
+        listeners.add(li);
+    }
+
+    public static void removeListener(Consumer<String> li) {
+        listeners.remove(li);
+    }
+
+    /** returns the description of the last user action, or null */
+    public static String getLastAction() {
+        return lastAction;
+    }
+
+    /** returns the name of the closest named node, or the class name of the target */
+    public static String describe(EventTarget t) {
+        if (t instanceof Node n) {
+            for (Node p = n; p != null; p = p.getParent()) {
+                String name = FX.getName(p);
+                if (name != null) {
+                    if (p == n) {
+                        return name;
+                    }
+                    return name + "/" + n.getClass().getSimpleName();
+                }
+            }
+            return n.getClass().getSimpleName();
+        } else if (t instanceof Scene) {
+            return "Scene";
+        } else if (t instanceof Window w) {
+            String name = FX.getName(w);
+            return (name == null) ? w.getClass().getSimpleName() : name;
+        }
+        return String.valueOf(t);
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.tools.fx.monkey.util;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import javafx.scene.control.TableColumnBase;
+import javafx.util.StringConverter;
+
+/**
+ * Generates typed DataRow values.
+ * <p>
+ * Each value is a function of the generator seed and the row id, so the same rows always get
+ * the same values, and the generation does not allocate anything other than the boxed numbers:
+ * the text values come from pools created once per generator.
+ * <p>
+ * The generator also provides the converter used by the typed cell factories.
+ */
+public abstract class ValueGenerator {
+    /** legacy values: random integers as strings */
+    public static final ValueGenerator DEFAULT = new ValueGenerator(0, false) {
+        @Override
+        protected Object generate(long random) {
+            return String.valueOf((int)random);
+        }
+    };
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.
+        ofPattern("yyyy-MM-dd HH:mm:ss").
+        withZone(ZoneOffset.UTC);
+    private static final String[] WORDS = {
+        "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet",
+        "kilo", "lima", "mike", "november", "oscar", "papa", "quebec", "romeo", "sierra", "tango",
+        "uniform", "victor", "whiskey", "x-ray", "yankee", "zulu"
+    };
+    private static final int TEXT_POOL_SIZE = 4096;
+    private final long seed;
+    private final boolean numeric;
+
+    protected ValueGenerator(long seed, boolean numeric) {
+        this.seed = seed;
+        this.numeric = numeric;
+    }
+
+    /**
+     * Generates a value from the specified well-mixed random bits.
+     */
+    protected abstract Object generate(long random);
+
+    /**
+     * Returns the value for the specified row.
+     */
+    public final Object getValue(long rowId) {
+        return generate(mix(seed * 0x9E3779B97F4A7C15L + rowId));
+    }
+
+    /** returns true if the values should be aligned to the right */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Formats a value for display.
+     */
+    public String toString(Object value) {
+        return (value == null) ? null : value.toString();
+    }
+
+    /**
+     * Parses the edited text, returns null if the text cannot be parsed.
+     */
+    protected Object parse(String text) {
+        return text;
+    }
+
+    public StringConverter<Object> converter() {
+        return new StringConverter<>() {
+            @Override
+            public String toString(Object x) {
+                return ValueGenerator.this.toString(x);
+            }
+
+            @Override
+            public Object fromString(String s) {
+                if (s == null) {
+                    return null;
+                }
+                try {
+                    return parse(s.trim());
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the generator associated with the specified column, or null.
+     */
+    public static ValueGenerator get(TableColumnBase<?, ?> c) {
+        Object v = c.getProperties().get(ValueGenerator.class);
+        return (v instanceof ValueGenerator g) ? g : null;
+    }
+
+    /**
+     * Associates the generator with the specified column.
+     */
+    public static void set(TableColumnBase<?, ?> c, ValueGenerator g) {
+        c.getProperties().put(ValueGenerator.class, g);
+    }
+
+    /** integers uniformly distributed in the [min, max] range */
+    public static ValueGenerator integers(long seed, int min, int max) {
+        long range = (long)max - min + 1;
+        return new ValueGenerator(seed, true) {
+            @Override
+            protected Object generate(long random) {
+                return (int)(min + Math.floorMod(random, range));
+            }
+
+            @Override
+            public String toString(Object value) {
+                return (value == null) ? null : String.format("%,d", value);
+            }
+
+            @Override
+            protected Object parse(String text) {
+                return Integer.parseInt(text.replace(",", ""));
+            }
+        };
+    }
+
+    /** doubles uniformly distributed in the [min, max) range, formatted with two decimals */
+    public static ValueGenerator doubles(long seed, double min, double max) {
+        return new ValueGenerator(seed, true) {
+            @Override
+            protected Object generate(long random) {
+                return min + toUnit(random) * (max - min);
+            }
+
+            @Override
+            public String toString(Object value) {
+                return (value == null) ? null : String.format("%,.2f", value);
+            }
+
+            @Override
+            protected Object parse(String text) {
+                return Double.parseDouble(text.replace(",", ""));
+            }
+        };
+    }
+
+    /** timestamps (epoch milliseconds) uniformly distributed over the specified number of days after the start */
+    public static ValueGenerator timestamps(long seed, Instant start, int days) {
+        long base = start.toEpochMilli();
+        long range = days * 86_400_000L;
+        return new ValueGenerator(seed, true) {
+            @Override
+            protected Object generate(long random) {
+                return base + Math.floorMod(random, range);
+            }
+
+            @Override
+            public String toString(Object value) {
+                if (value instanceof Long t) {
+                    return TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(t));
+                }
+                return super.toString(value);
+            }
+
+            @Override
+            protected Object parse(String text) {
+                return Instant.from(TIMESTAMP_FORMAT.parse(text)).toEpochMilli();
+            }
+        };
+    }
+
+    /**
+     * Category names following the Zipf distribution: the category with rank k
+     * is chosen with the probability proportional to 1/k^exponent.
+     */
+    public static ValueGenerator categories(long seed, int count, double exponent) {
+        String[] names = new String[count];
+        double[] cdf = new double[count];
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) {
+            names[i] = WORDS[i % WORDS.length] + "-" + (i + 1);
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        double total = sum;
+
+        return new ValueGenerator(seed, false) {
+            @Override
+            protected Object generate(long random) {
+                int ix = Arrays.binarySearch(cdf, toUnit(random) * total);
+                if (ix < 0) {
+                    ix = -ix - 1;
+                }
+                return names[Math.min(ix, count - 1)];
+            }
+        };
+    }
+
+    /**
+     * Text of variable length, between 1 and maxWords words.
+     * When templates is true, some of the values are the TextTemplates strings
+     * (complex scripts, emojis, right-to-left text).
+     */
+    public static ValueGenerator text(long seed, int maxWords, boolean templates) {
+        ArrayList<String> pool = new ArrayList<>(TEXT_POOL_SIZE);
+        if (templates) {
+            Object[] pairs = TextTemplates.singleLineTextPairs();
+            for (int i = 1; i < pairs.length; i += 2) {
+                if (pairs[i] instanceof String s) {
+                    pool.add(s);
+                }
+            }
+        }
+
+        SplittableRandom r = new SplittableRandom(seed);
+        StringBuilder sb = new StringBuilder();
+        while (pool.size() < TEXT_POOL_SIZE) {
+            sb.setLength(0);
+            // squaring skews the lengths towards the short ones
+            double u = r.nextDouble();
+            int words = 1 + (int)(u * u * maxWords);
+            for (int i = 0; i < words; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(WORDS[r.nextInt(WORDS.length)]);
+            }
+            pool.add(sb.toString());
+        }
+        String[] values = pool.toArray(new String[pool.size()]);
+
+        return new ValueGenerator(seed, false) {
+            @Override
+            protected Object generate(long random) {
+                return values[Math.floorMod(random, values.length)];
+            }
+        };
+    }
+
+    /** booleans, true with the specified probability */
+    public static ValueGenerator booleans(long seed, double probability) {
+        return new ValueGenerator(seed, false) {
+            @Override
+            protected Object generate(long random) {
+                return toUnit(random) < probability;
+            }
+
+            @Override
+            protected Object parse(String text) {
+                return Boolean.parseBoolean(text);
+            }
+        };
+    }
+
+    /** converts the random bits to a double in the [0, 1) range */
+    private static double toUnit(long random) {
+        return (random >>> 11) * 0x1.0p-53;
+    }
+
+    /** the SplitMix64 finalizer */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -31,4 +31,6 @@ module monkey_tester {
     requires javafx.web;
     requires java.desktop;
     requires javafx.swing;
+    requires jdk.jfr;
+    requires jdk.management;
 }